@@ -0,0 +1,128 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Benchmarks;
+
+import Metaheuristics.BoardGenome;
+import Metaheuristics.Boards;
+import Metaheuristics.FitnessCache;
+import Metaheuristics.GA.GABoard;
+import Metaheuristics.Metaheuristics;
+import SokoGenerator.ReverseGenerator;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.moeaframework.core.Solution;
+
+/**
+ * Tableros de los benchmarks. Se arman con ReverseGenerator desde
+ * Boards.tablero1..6 con una semilla fija, así cada corrida mide los mismos
+ * tableros y los resultados se pueden comparar entre versiones.
+ *
+ * @author Hans
+ */
+final class BenchBoards {
+    static final long SEED = 42;
+    private static final char[][][] BASES = {Boards.tablero1, Boards.tablero2, Boards.tablero3,
+        Boards.tablero4, Boards.tablero5, Boards.tablero6};
+
+    private BenchBoards() {
+    }
+
+    //Tablero base (1 a 6)
+    static BoardGenome Base(int board) {
+        return BoardGenome.FromChars(BASES[board - 1]);
+    }
+
+    /**
+     * Sin cache, sin presupuesto de evaluaciones y con la semilla fija, así
+     * cada Solve llama al solver y la corrida no se detiene.
+     */
+    static void Configure() {
+        Metaheuristics.P_SEED = SEED;
+        Metaheuristics.random = new Random(SEED);
+        Metaheuristics.fitnessCache = new FitnessCache(0);
+        Metaheuristics.MAXEVALUATIONS = Integer.MAX_VALUE;
+        Metaheuristics.STOP = false;
+    }
+
+    //count tableros del tablero base con boxes cajas, siempre los mismos para la misma semilla
+    static BoardGenome[] Seeded(int board, int boxes, int count) {
+        BoardGenome base = Base(board);
+        Random random = new Random(SEED + board);
+        BoardGenome[] boards = new BoardGenome[count];
+        for (int k = 0; k < count; ) {
+            BoardGenome newBoard = ReverseGenerator.Generate(base, boxes, Metaheuristics.P_REVERSE_PULLS, random);
+            if (newBoard != null)
+                boards[k++] = newBoard;
+        }
+        return boards;
+    }
+
+    static Solution[] Solutions(BoardGenome[] boards) {
+        Solution[] solutions = new Solution[boards.length];
+        for (int k = 0; k < boards.length; k++) {
+            solutions[k] = new Solution(1, 1);
+            solutions[k].setVariable(0, new GABoard(boards[k]));
+        }
+        return solutions;
+    }
+
+    /**
+     * Niveles de un archivo de texto (.sok, .xsb o .txt, el formato de las
+     * colecciones de JSoko): cada bloque de líneas de tablero es un nivel y
+     * el resto (títulos, autores, soluciones) se ignora. Las filas se
+     * completan con espacios para que el tablero sea rectangular.
+     */
+    static List<BoardGenome> ReadLevels(String path) throws IOException {
+        List<BoardGenome> levels = new ArrayList<>();
+        List<String> rows = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8)) {
+            if (IsBoardRow(line)) {
+                rows.add(line);
+                continue;
+            }
+            AddLevel(levels, rows);
+        }
+        AddLevel(levels, rows);
+        return levels;
+    }
+
+    private static void AddLevel(List<BoardGenome> levels, List<String> rows) {
+        if (rows.isEmpty())
+            return;
+
+        int width = 0;
+        for (String row : rows)
+            width = Math.max(width, row.length());
+        char[][] board = new char[rows.size()][width];
+        for (int i = 0; i < board.length; i++) {
+            String row = rows.get(i);
+            for (int j = 0; j < width; j++)
+                board[i][j] = j < row.length() ? Normalize(row.charAt(j)) : ' ';
+        }
+        levels.add(BoardGenome.FromChars(board));
+        rows.clear();
+    }
+
+    //Una línea de tablero tiene una pared y solo caracteres de tablero
+    private static boolean IsBoardRow(String line) {
+        if (line.indexOf('#') < 0)
+            return false;
+        for (int k = 0; k < line.length(); k++) {
+            if ("#@+$*. -_".indexOf(line.charAt(k)) < 0)
+                return false;
+        }
+        return true;
+    }
+
+    //'-' y '_' también son piso en las colecciones
+    private static char Normalize(char c) {
+        return c == '-' || c == '_' ? ' ' : c;
+    }
+}
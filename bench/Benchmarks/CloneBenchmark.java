@@ -0,0 +1,71 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Benchmarks;
+
+import Metaheuristics.BoardGenome;
+import Metaheuristics.GA.GABoard;
+import SokoGenerator.GeneratorUtils;
+import java.util.concurrent.TimeUnit;
+import org.moeaframework.core.Variable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Copia de un tablero: el char[][] de GeneratorUtils.CloneCharArray contra
+ * GABoard.copy, que comparte los arreglos del genoma hasta que una de las dos
+ * copias cambia. copyAndWrite es el caso de un operador, que copia y
+ * después modifica el hijo.
+ *
+ * @author Hans
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CloneBenchmark {
+
+    @Param({"1", "2", "3", "4", "5", "6"})
+    public int board;
+
+    private char[][] chars;
+    private GABoard gaBoard;
+    private int empty;
+
+    @Setup
+    public void Setup() {
+        BoardGenome genome = BenchBoards.Seeded(board, 1, 1)[0];
+        chars = genome.ToChars();
+        gaBoard = new GABoard(genome);
+        empty = genome.GetEmpty(0);
+    }
+
+    @Benchmark
+    public char[][] cloneCharArray() {
+        return GeneratorUtils.CloneCharArray(chars);
+    }
+
+    @Benchmark
+    public Variable gaBoardCopy() {
+        return gaBoard.copy();
+    }
+
+    @Benchmark
+    public BoardGenome gaBoardCopyAndWrite() {
+        BoardGenome copy = ((GABoard) gaBoard.copy()).GetGenome();
+        copy.Add(empty, BoardGenome.BOX);
+        return copy;
+    }
+}
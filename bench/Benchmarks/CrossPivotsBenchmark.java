@@ -0,0 +1,64 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Benchmarks;
+
+import Metaheuristics.BoardGenome;
+import Metaheuristics.CrossPivots;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Búsqueda de las regiones candidatas del cruce (CrossPivots.Find), con un
+ * padre (DECrossover) y con dos (BoardCrossover).
+ *
+ * @author Hans
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CrossPivotsBenchmark {
+
+    @Param({"1", "2", "3", "4", "5", "6"})
+    public int board;
+
+    @Param({"1", "4"})
+    public int boxes;
+
+    private final CrossPivots pivots = new CrossPivots();
+    private BoardGenome first;
+    private BoardGenome second;
+
+    @Setup
+    public void Setup() {
+        BoardGenome[] parents = BenchBoards.Seeded(board, boxes, 2);
+        first = parents[0];
+        second = parents[1];
+    }
+
+    @Benchmark
+    public int findOneParent() {
+        pivots.Find(first);
+        return pivots.Count();
+    }
+
+    @Benchmark
+    public int findTwoParents() {
+        pivots.Find(first, second);
+        return pivots.Count();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Benchmarks;
+
+import Metaheuristics.BoardGenome;
+import SokoGenerator.GeneratorUtils;
+import SokoGenerator.Tree.Pair;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Contar y buscar piezas: recorrer el char[][] (GeneratorUtils) contra las
+ * listas de piezas de BoardGenome. Se busca la última caja, el peor caso
+ * del recorrido.
+ *
+ * @author Hans
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenomeBenchmark {
+
+    @Param({"1", "2", "3", "4", "5", "6"})
+    public int board;
+
+    @Param({"1", "4"})
+    public int boxes;
+
+    private char[][] chars;
+    private BoardGenome genome;
+
+    @Setup
+    public void Setup() {
+        genome = BenchBoards.Seeded(board, boxes, 1)[0];
+        chars = genome.ToChars();
+    }
+
+    @Benchmark
+    public int countCharacters() {
+        return GeneratorUtils.CountCharacters(1, chars);
+    }
+
+    @Benchmark
+    public int genomeCount() {
+        return genome.Count(BoardGenome.BOX);
+    }
+
+    @Benchmark
+    public Pair findCharacterPair() {
+        return GeneratorUtils.FindCharacterPairIndexBased(chars, 1, boxes - 1);
+    }
+
+    @Benchmark
+    public int genomeFind() {
+        return genome.Find(BoardGenome.BOX, boxes - 1);
+    }
+}
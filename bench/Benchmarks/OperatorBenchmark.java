@@ -0,0 +1,87 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Benchmarks;
+
+import Metaheuristics.BoardCrossover;
+import Metaheuristics.BoardMutation;
+import Metaheuristics.ES.ESMutation;
+import Metaheuristics.Metaheuristics;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.moeaframework.core.Solution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Una llamada a cada operador, hasta devolver su hijo pendiente. Las
+ * probabilidades quedan en 1 para que el operador siempre se aplique, y los
+ * padres se van rotando entre POOL tableros con las cajas indicadas.
+ *
+ * @author Hans
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperatorBenchmark {
+    private static final int POOL = 64;
+
+    @Param({"1", "2", "3", "4", "5", "6"})
+    public int board;
+
+    @Param({"1", "4"})
+    public int boxes;
+
+    private Solution[] parents;
+    private int next;
+    private BoardMutation boardMutation;
+    private BoardCrossover boardCrossover;
+    private ESMutation esMutation;
+
+    @Setup
+    public void Setup() {
+        BenchBoards.Configure();
+        Metaheuristics.P_CROSSOVER_PROB_GA = 1;
+        Metaheuristics.P_MUTATION_PROB_GA = 1;
+        Metaheuristics.P_MUTATION_PROB_ES = 1;
+
+        parents = BenchBoards.Solutions(BenchBoards.Seeded(board, boxes, POOL));
+        Random random = new Random(BenchBoards.SEED);
+        boardMutation = new BoardMutation(1, Metaheuristics.NewStream(random));
+        boardCrossover = new BoardCrossover(1, Metaheuristics.NewStream(random));
+        esMutation = new ESMutation(1, Metaheuristics.NewStream(random));
+    }
+
+    private Solution Next() {
+        next = (next + 1) % POOL;
+        return parents[next];
+    }
+
+    @Benchmark
+    public Solution[] boardMutation() {
+        return boardMutation.evolve(new Solution[]{Next()});
+    }
+
+    @Benchmark
+    public Solution[] boardCrossover() {
+        return boardCrossover.evolve(new Solution[]{Next(), Next()});
+    }
+
+    @Benchmark
+    public Solution[] esMutation() {
+        return esMutation.evolve(new Solution[]{Next()});
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Benchmarks;
+
+import Metaheuristics.BoardGenome;
+import Metaheuristics.EvaluationResult;
+import Metaheuristics.Metaheuristics;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Metaheuristics.Solve completo (pre-screen, conteo de evaluaciones y
+ * solver) sobre tableros fijos de Boards.tablero1..6. El cache queda
+ * apagado, así cada llamada resuelve el tablero.
+ *
+ * @author Hans
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolveBenchmark {
+    private static final int POOL = 16;
+
+    @Param({"1", "2", "3", "4", "5", "6"})
+    public int board;
+
+    @Param({"2", "4"})
+    public int boxes;
+
+    @Param({"false", "true"})
+    public boolean optimal;
+
+    private BoardGenome[] boards;
+    private int next;
+
+    @Setup
+    public void Setup() {
+        BenchBoards.Configure();
+        boards = BenchBoards.Seeded(board, boxes, POOL);
+    }
+
+    @Benchmark
+    public EvaluationResult solve() {
+        next = (next + 1) % POOL;
+        return Metaheuristics.Solve(boards[next], optimal);
+    }
+}
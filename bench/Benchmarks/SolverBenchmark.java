@@ -0,0 +1,76 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Benchmarks;
+
+import Metaheuristics.BoardEvaluator;
+import Metaheuristics.BoardGenome;
+import Metaheuristics.EvaluationResult;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Solo el evaluador (BoardEvaluator.Evaluate: pre-screen y solver), sin
+ * cache ni presupuesto: tableros evaluados por segundo.
+ *
+ * Con -p levels=<archivo> se usan los niveles de una colección de JSoko
+ * (.sok, .xsb o .txt, ver BenchBoards.ReadLevels), por ejemplo las que vienen
+ * en su carpeta levels. Sin levels se usan tableros fijos de los seis
+ * tableros base.
+ *
+ * @author Hans
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+
+    @Param({""})
+    public String levels;
+
+    @Param({"false", "true"})
+    public boolean optimal;
+
+    private final BoardEvaluator evaluator = new BoardEvaluator();
+    private BoardGenome[] boards;
+    private int next;
+
+    @Setup
+    public void Setup() throws IOException {
+        BenchBoards.Configure();
+        List<BoardGenome> list = new ArrayList<>();
+        if (levels.isEmpty()) {
+            for (int board = 1; board <= 6; board++)
+                list.addAll(Arrays.asList(BenchBoards.Seeded(board, 3, 4)));
+        } else {
+            list = BenchBoards.ReadLevels(levels);
+        }
+        if (list.isEmpty())
+            throw new IllegalArgumentException("No hay niveles en " + levels);
+        boards = list.toArray(new BoardGenome[0]);
+    }
+
+    @Benchmark
+    public EvaluationResult evaluate() {
+        next = (next + 1) % boards.length;
+        return evaluator.Evaluate(boards[next], optimal);
+    }
+}
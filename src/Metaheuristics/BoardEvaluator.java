@@ -0,0 +1,186 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metaheuristics;
+
+import de.sokoban_online.jsoko.PositionStorage;
+import de.sokoban_online.jsoko.board.Board;
+import de.sokoban_online.jsoko.leveldata.History;
+import de.sokoban_online.jsoko.pushesLowerBoundCalculation.LowerBoundCalculation;
+import de.sokoban_online.jsoko.resourceHandling.Settings;
+import de.sokoban_online.jsoko.solver.AnySolution.SolverAnySolution;
+import de.sokoban_online.jsoko.solver.Influence;
+import de.sokoban_online.jsoko.solver.Solver;
+import de.sokoban_online.jsoko.solver.SolverAStarPushesMoves;
+
+/**
+ * Evalua tableros sin pasar por JSoko.setLevelForPlaying: el tablero se carga
+ * en un Board propio y se resuelve directamente, sin GUI ni base de datos.
+ * 
+ * Un BoardEvaluator es un contexto confinado a un hilo: cada hilo usa el suyo
+ * (ver Metaheuristics.Solve) y así varios tableros se resuelven en paralelo.
+ * 
+ * La tabla de posiciones del solver (1 << 22 entradas) se crea una vez por
+ * evaluador y se reutiliza. Se limpia al terminar cada búsqueda, poniendo en
+ * null solo las casillas que usó, así no se reserva otra vez y un evaluador
+ * que queda sin trabajo no retiene las posiciones de su última búsqueda.
+ *
+ * @author Hans
+ */
+public class BoardEvaluator {
+    private final Board board;
+    private final StringBuilder validityMessage;
+    private final PositionStorage positionStorage;
+    private final BoardScreen screen;
+
+    public BoardEvaluator() {
+        board = new Board();
+        validityMessage = new StringBuilder();
+        positionStorage = new PositionStorage(1 << 22);
+        screen = new BoardScreen(board);
+    }
+
+    /**
+     * Carga el tablero una sola vez, le pasa el pre-screen (ver BoardScreen)
+     * y, si ninguna regla lo descarta, lo resuelve sobre ese mismo Board. Un
+     * tablero descartado vuelve como EvaluationResult.Screened, sin llamar al
+     * solver.
+     */
+    public EvaluationResult Evaluate(BoardGenome boardData, boolean optimal) {
+
+        long start = System.nanoTime();
+        BoardScreen.Rule rule = Load(boardData) ? screen.Check() : BoardScreen.Rule.INVALID;
+        MetricsRegistry.Record(MetricsRegistry.Timer.PRE_SCREEN, System.nanoTime() - start);
+        if (rule != null) {
+            return EvaluationResult.Screened(rule);
+        }
+
+        //Resolver con un historial nuevo, así los pushes son solo los de esta solución
+        History history = new History();
+        Solver solver = optimal ? new SolverAStarPushesMoves(board, history, positionStorage)
+                                : new SolverAnySolution(board, history, positionStorage);
+        solver.setSearchBudget(Metaheuristics.P_MAX_SOLVE_NODES, Metaheuristics.P_MAX_SOLVE_POSITIONS,
+                Metaheuristics.P_MAX_SOLVE_MILLIS);
+
+        boolean solved;
+        try {
+            solved = solver.searchSolution() != null;
+        } finally {
+            positionStorage.clear();
+        }
+
+        if (!solved) {
+            if (solver.isSolverStoppedDueToBudget() || solver.isSolverStoppedDueToOutOfMemory()) {
+                return EvaluationResult.BudgetExceeded(solver.getBoardPositionsCount());
+            }
+            return new EvaluationResult(false, 0, 0, solver.getBoardPositionsCount());
+        }
+
+        return new EvaluationResult(true, history.getPushesCount(), history.getMovementsCount(),
+                solver.getBoardPositionsCount());
+    }
+
+    /**
+     * Características del tablero para SurrogateModel, en el orden de
+     * SurrogateModel.FEATURES: 1, cota inferior de empujes de JSoko, suma de
+     * las distancias Manhattan de cada caja a la meta más cercana, cajas,
+     * corrales (zonas libres a las que el jugador no llega) y suma de las
+     * distancias de influencia de cada caja a la meta más cercana. Devuelve
+     * null si el tablero no es válido o la cota encuentra un deadlock.
+     */
+    public double[] Features(BoardGenome boardData) {
+        if (!Load(boardData)) {
+            return null;
+        }
+
+        board.boxData.setAllBoxesNotFrozen();
+        int lowerBound = new LowerBoundCalculation(board).calculatePushesLowerbound();
+        if (lowerBound == LowerBoundCalculation.DEADLOCK) {
+            return null;
+        }
+
+        Influence influence = new Influence(board);
+        influence.calculateInfluenceValues();
+        int manhattan = 0;
+        int influenceSum = 0;
+        for (int boxNo = 0; boxNo < board.boxCount; boxNo++) {
+            int box = board.boxData.getBoxPosition(boxNo);
+            int nearest = Integer.MAX_VALUE;
+            int nearestInfluence = Integer.MAX_VALUE;
+            for (int goalNo = 0; goalNo < board.goalsCount; goalNo++) {
+                int goal = board.getGoalPosition(goalNo);
+                nearest = Math.min(nearest, Math.abs(box / board.width - goal / board.width)
+                        + Math.abs(box % board.width - goal % board.width));
+                nearestInfluence = Math.min(nearestInfluence, influence.getInfluenceDistance(box, goal));
+            }
+            manhattan += nearest;
+            influenceSum += nearestInfluence == Integer.MAX_VALUE ? 0 : nearestInfluence;
+        }
+
+        return new double[]{1, lowerBound, manhattan, board.boxCount, CountCorrals(boardData), influenceSum};
+    }
+
+    //Zonas libres (sin paredes ni cajas) separadas de la del jugador
+    private static int CountCorrals(BoardGenome boardData) {
+        int size = boardData.GetSize();
+        int width = boardData.GetWidth();
+        boolean[] seen = new boolean[size];
+        int[] stack = new int[size];
+        int zones = 0;
+        for (int start = 0; start < size; start++) {
+            if (seen[start] || (boardData.Get(start) & (BoardGenome.WALL | BoardGenome.BOX)) != 0) {
+                continue;
+            }
+            zones++;
+            int top = 0;
+            seen[start] = true;
+            stack[top++] = start;
+            while (top > 0) {
+                int index = stack[--top];
+                int[] neighbours = {index - width, index + width,
+                        index % width > 0 ? index - 1 : -1, index % width < width - 1 ? index + 1 : -1};
+                for (int next : neighbours) {
+                    if (next >= 0 && next < size && !seen[next]
+                            && (boardData.Get(next) & (BoardGenome.WALL | BoardGenome.BOX)) == 0) {
+                        seen[next] = true;
+                        stack[top++] = next;
+                    }
+                }
+            }
+        }
+        return Math.max(0, zones - 1);
+    }
+
+    //Carga el tablero en board y lo prepara; false si no es un nivel válido.
+    //Las posiciones del genoma son las mismas del Board, sin pasar por texto
+    private boolean Load(BoardGenome boardData) {
+        if (boardData.GetWidth() > Settings.maximumBoardSize || boardData.GetHeight() > Settings.maximumBoardSize) {
+            return false;
+        }
+
+        board.newBoard(boardData.GetWidth(), boardData.GetHeight());
+        for (int position = 0; position < boardData.GetSize(); position++) {
+            byte cell = boardData.Get(position);
+            if ((cell & BoardGenome.WALL) != 0) {
+                board.setWall(position);
+            }
+            if ((cell & BoardGenome.GOAL) != 0) {
+                board.setGoal(position);
+            }
+            if ((cell & BoardGenome.BOX) != 0) {
+                board.setBox(position);
+            }
+            if ((cell & BoardGenome.PLAYER) != 0) {
+                board.setPlayerPosition(position);
+            }
+        }
+
+        validityMessage.setLength(0);
+        if (!board.isValid(validityMessage)) {
+            return false;
+        }
+        board.prepareBoard();
+        return true;
+    }
+}
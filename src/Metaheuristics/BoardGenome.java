@@ -0,0 +1,524 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metaheuristics;
+
+import de.sokoban_online.jsoko.workInProgress.duplicateCheck.DuplicateCheck.Transformations;
+import java.util.Arrays;
+
+/**
+ * Tablero de GABoard y SABoard: un byte[] con una celda por casilla, fila
+ * por fila (índice = fila * ancho + columna, igual que las posiciones del
+ * Board de JSoko). Cada celda guarda las capas WALL, GOAL, BOX y PLAYER como
+ * bits, así '*' es GOAL | BOX y '+' es GOAL | PLAYER.
+ *
+ * Aparte se mantienen las listas de posiciones del jugador, las cajas y las
+ * metas, del largo de las piezas que hay (P_MAX_BOXES, y crecen si un
+ * operador pone más por un momento), así Count y Find no recorren el
+ * tablero. Las casillas vacías van en otra lista (free), con las casillas
+ * donde una caja se puede mover primero y las IsDeadBoxSquare al final, así
+ * GetEmpty y GetBoxSquare son O(1) y sacar o agregar una casilla también. Se
+ * arma la primera vez que se pide una casilla vacía y después se mantiene,
+ * salvo que cambien las paredes.
+ *
+ * Copy es O(1): la copia comparte los arreglos con el original y el primero
+ * que escribe hace su propia copia. Un hijo de un operador cuesta así tres
+ * arreglos chicos (unos 400 bytes en un tablero de 11x8, contra unos 700 de
+ * un char[][]), y solo si de verdad cambia algo.
+ *
+ * @author Hans
+ */
+public final class BoardGenome {
+
+    //Capas de una celda
+    public static final byte WALL = 1;
+    public static final byte GOAL = 2;
+    public static final byte BOX = 4;
+    public static final byte PLAYER = 8;
+
+    //Player : 0 , box: 1 , goal: 2 (como en GeneratorUtils.CountCharacters)
+    private static final byte[] ELEMENTS = {PLAYER, BOX, GOAL};
+
+    //Listas de posiciones de las piezas
+    private static final int PLAYERS = 0;
+    private static final int BOXES = 1;
+    private static final int GOALS = 2;
+    private static final int LISTS = 3;
+    //En pieces: largo de cada lista, casillas vacías y después las listas
+    private static final int EMPTY_COUNT = LISTS;
+    private static final int HEADER = LISTS + 1;
+    //En free: casillas vacías donde una caja se puede mover, todas las
+    //vacías y después la lista y el lugar de cada casilla en ella
+    private static final int FREE_LIVE = 0;
+    private static final int FREE_COUNT = 1;
+    private static final int FREE_HEADER = 2;
+
+    //Caracter de cada combinación de capas, '?' si no es una casilla válida
+    private static final char[] CHARS = new char[16];
+    static {
+        Arrays.fill(CHARS, '?');
+        CHARS[0] = ' ';
+        CHARS[WALL] = '#';
+        CHARS[GOAL] = '.';
+        CHARS[BOX] = '$';
+        CHARS[GOAL | BOX] = '*';
+        CHARS[PLAYER] = '@';
+        CHARS[GOAL | PLAYER] = '+';
+    }
+
+    private final int height;
+    private final int width;
+    private final int size;
+    private byte[] cells;
+    //[largo de cada lista (LISTS)] [casillas vacías] [listas (LISTS * capacidad)]
+    private short[] pieces;
+    //[vivas] [vacías] [casillas vacías, las vivas primero] [lugar de cada casilla sin pared en la lista]
+    //null hasta que se pide una casilla vacía, y otra vez si cambian las paredes
+    private short[] free;
+    //true si cells, pieces y free pueden estar compartidos con otra copia
+    private boolean shared;
+    private int hash;
+    //Casillas sin pared, compartidas con las copias mientras no cambien las paredes
+    private Floor floor;
+    //Regiones de cruce, compartidas con las copias mientras no cambien las paredes
+    CrossWindows windows;
+
+    //Tablero vacío
+    private BoardGenome(int height, int width) {
+        this.height = height;
+        this.width = width;
+        this.size = height * width;
+        //Las posiciones se guardan como short
+        if (size > Short.MAX_VALUE)
+            throw new IllegalArgumentException("Tablero demasiado grande: " + height + "x" + width);
+
+        cells = new byte[size];
+        pieces = new short[HEADER + LISTS * Math.max(1, Metaheuristics.P_MAX_BOXES)];
+        pieces[EMPTY_COUNT] = (short) size;
+    }
+
+    private BoardGenome(BoardGenome other) {
+        this.height = other.height;
+        this.width = other.width;
+        this.size = other.size;
+        this.cells = other.cells;
+        this.pieces = other.pieces;
+        this.free = other.free;
+        this.floor = other.floor;
+        this.windows = other.windows;
+    }
+
+    public static BoardGenome FromChars(char[][] board) {
+        BoardGenome genome = new BoardGenome(board.length, board[0].length);
+        for (int i = 0; i < genome.height; i++) {
+            for (int j = 0; j < genome.width; j++)
+                genome.Set(i * genome.width + j, Cell(board[i][j]));
+        }
+        return genome;
+    }
+
+    public char[][] ToChars() {
+        char[][] board = new char[height][width];
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++)
+                board[i][j] = CHARS[cells[i * width + j]];
+        }
+        return board;
+    }
+
+    public BoardGenome Copy() {
+        shared = true;
+        BoardGenome copy = new BoardGenome(this);
+        copy.shared = true;
+        copy.hash = hash;
+        return copy;
+    }
+
+    public int GetHeight() {
+        return height;
+    }
+
+    public int GetWidth() {
+        return width;
+    }
+
+    public int GetSize() {
+        return size;
+    }
+
+    public int Index(int i, int j) {
+        return i * width + j;
+    }
+
+    public int Row(int index) {
+        return index / width;
+    }
+
+    public int Column(int index) {
+        return index % width;
+    }
+
+    public byte Get(int index) {
+        return cells[index];
+    }
+
+    public char GetChar(int i, int j) {
+        return CHARS[cells[i * width + j]];
+    }
+
+    public boolean IsEmpty(int index) {
+        return cells[index] == 0;
+    }
+
+    public void Set(int index, byte cell) {
+        int old = cells[index];
+        if (old == cell)
+            return;
+
+        Write();
+        if (((old ^ cell) & WALL) != 0) {
+            floor = null;
+            free = null;
+            windows = null;
+        }
+        cells[index] = cell;
+        if ((old == 0) != (cell == 0)) {
+            pieces[EMPTY_COUNT] += cell == 0 ? 1 : -1;
+            if (free != null && cell == 0)
+                AddFree(index);
+            else if (free != null)
+                RemoveFree(index);
+        }
+        for (int list = 0; list < LISTS; list++) {
+            boolean was = InList(list, old);
+            boolean is = InList(list, cell);
+            if (was && !is)
+                RemoveFromList(list, index);
+            else if (!was && is)
+                AddToList(list, index);
+        }
+    }
+
+    public void SetChar(int i, int j, char c) {
+        Set(i * width + j, Cell(c));
+    }
+
+    public void Add(int index, byte layer) {
+        Set(index, (byte) (cells[index] | layer));
+    }
+
+    public void Remove(int index, byte layer) {
+        Set(index, (byte) (cells[index] & ~layer));
+    }
+
+    //Capa del elemento (0: jugador, 1: caja, 2: meta)
+    public static byte Layer(int elementID) {
+        return ELEMENTS[elementID];
+    }
+
+    public int Count(byte layer) {
+        return pieces[List(layer)];
+    }
+
+    /**
+     * Índice de la k-ésima casilla con la capa, -1 si no hay tantas. El orden
+     * es el de la lista de la capa (depende de cómo se armó el tablero), no
+     * el de las filas.
+     */
+    public int Find(byte layer, int k) {
+        int list = List(layer);
+        return k < pieces[list] ? pieces[ListOffset(list) + k] : -1;
+    }
+
+    public int CountEmpty() {
+        return pieces[EMPTY_COUNT];
+    }
+
+    /**
+     * Índice de la k-ésima casilla vacía, 0 <= k < CountEmpty(). Como en
+     * Find, el orden es el de la lista (primero las casillas de GetBoxSquare),
+     * no el de las filas.
+     */
+    public int GetEmpty(int k) {
+        return GetFree()[FREE_HEADER + k];
+    }
+
+    //Casillas vacías donde una caja se puede mover (las que no son IsDeadBoxSquare)
+    public int CountBoxSquares() {
+        return GetFree()[FREE_LIVE];
+    }
+
+    //Índice de la k-ésima de esas casillas, 0 <= k < CountBoxSquares()
+    public int GetBoxSquare(int k) {
+        return GetFree()[FREE_HEADER + k];
+    }
+
+    private Floor GetFloor() {
+        if (floor == null)
+            floor = new Floor(this);
+        return floor;
+    }
+
+    //Arma la lista de casillas vacías, fila por fila
+    private short[] GetFree() {
+        if (free == null) {
+            Floor floor = GetFloor();
+            free = new short[FREE_HEADER + 2 * floor.squares.length];
+            for (short index : floor.squares) {
+                if (cells[index] == 0)
+                    AddFree(index);
+            }
+        }
+        return free;
+    }
+
+    //Pone la casilla en el lugar position de la lista de casillas vacías
+    private void PlaceFree(int position, int index) {
+        free[FREE_HEADER + position] = (short) index;
+        free[FREE_HEADER + floor.squares.length + floor.rank[index]] = (short) position;
+    }
+
+    //Una casilla viva va al final de las vivas, y la primera muerta pasa al final
+    private void AddFree(int index) {
+        int count = free[FREE_COUNT];
+        if (!floor.dead[floor.rank[index]]) {
+            int live = free[FREE_LIVE];
+            if (live < count)
+                PlaceFree(count, free[FREE_HEADER + live]);
+            PlaceFree(live, index);
+            free[FREE_LIVE] = (short) (live + 1);
+        } else {
+            PlaceFree(count, index);
+        }
+        free[FREE_COUNT] = (short) (count + 1);
+    }
+
+    //El hueco se llena con la última viva (si era viva) y después con la última de la lista
+    private void RemoveFree(int index) {
+        int position = free[FREE_HEADER + floor.squares.length + floor.rank[index]];
+        int live = free[FREE_LIVE];
+        if (position < live) {
+            live--;
+            PlaceFree(position, free[FREE_HEADER + live]);
+            position = live;
+            free[FREE_LIVE] = (short) live;
+        }
+        int count = free[FREE_COUNT] - 1;
+        if (position < count)
+            PlaceFree(position, free[FREE_HEADER + count]);
+        free[FREE_COUNT] = (short) count;
+    }
+
+    /**
+     * true si una caja que no está en una meta no se puede empujar nunca
+     * desde la casilla: en ninguno de los dos ejes tiene las dos casillas
+     * vecinas libres de paredes. Es la parte de los simple deadlocks de
+     * JSoko (Board.isSimpleDeadlockSquare) que no depende de las metas.
+     */
+    public boolean IsDeadBoxSquare(int index) {
+        int i = index / width;
+        int j = index % width;
+        boolean vertical = !IsWall(i - 1, j) && !IsWall(i + 1, j);
+        boolean horizontal = !IsWall(i, j - 1) && !IsWall(i, j + 1);
+        return !vertical && !horizontal;
+    }
+
+    //Fuera del tablero cuenta como pared
+    private boolean IsWall(int i, int j) {
+        return i < 0 || j < 0 || i >= height || j >= width || (cells[i * width + j] & WALL) != 0;
+    }
+
+    private static int List(byte layer) {
+        switch (layer) {
+            case PLAYER: return PLAYERS;
+            case BOX: return BOXES;
+            case GOAL: return GOALS;
+            default:
+                throw new IllegalArgumentException("Capa sin lista: " + layer);
+        }
+    }
+
+    private static boolean InList(int list, int cell) {
+        switch (list) {
+            case PLAYERS: return (cell & PLAYER) != 0;
+            case BOXES: return (cell & BOX) != 0;
+            default: return (cell & GOAL) != 0;
+        }
+    }
+
+    private int Capacity() {
+        return (pieces.length - HEADER) / LISTS;
+    }
+
+    private int ListOffset(int list) {
+        return HEADER + list * Capacity();
+    }
+
+    private void AddToList(int list, int index) {
+        int count = pieces[list];
+        if (count == Capacity())
+            Grow();
+        pieces[ListOffset(list) + count] = (short) index;
+        pieces[list] = (short) (count + 1);
+    }
+
+    //La última posición de la lista pasa al lugar de la que se saca
+    private void RemoveFromList(int list, int index) {
+        int offset = ListOffset(list);
+        int count = pieces[list] - 1;
+        int slot = 0;
+        while (pieces[offset + slot] != index)
+            slot++;
+        pieces[offset + slot] = pieces[offset + count];
+        pieces[list] = (short) count;
+    }
+
+    //Dobla la capacidad de las listas (Write ya hizo la copia propia)
+    private void Grow() {
+        int capacity = Capacity();
+        short[] grown = new short[HEADER + LISTS * 2 * capacity];
+        System.arraycopy(pieces, 0, grown, 0, HEADER);
+        for (int list = 0; list < LISTS; list++)
+            System.arraycopy(pieces, HEADER + list * capacity, grown, HEADER + list * 2 * capacity, pieces[list]);
+        pieces = grown;
+    }
+
+    /**
+     * Devuelve la menor de las 8 rotaciones y reflexiones del tablero
+     * (DuplicateCheck.Transformations). Se comparan como el texto del
+     * tablero con cada fila precedida por '\n', así el orden es el mismo de
+     * las claves de texto que se usaban antes (y de FitnessStore).
+     */
+    public BoardGenome Canonical() {
+        Transformations best = Transformations.ROTATED_0;
+        for (Transformations transformation : Transformations.values()) {
+            if (Compare(transformation, best) < 0)
+                best = transformation;
+        }
+        if (best == Transformations.ROTATED_0)
+            return Copy();
+
+        BoardGenome transformed = new BoardGenome(best.isTransposed() ? width : height,
+                best.isTransposed() ? height : width);
+        for (int i = 0; i < transformed.height; i++) {
+            for (int j = 0; j < transformed.width; j++)
+                transformed.Set(i * transformed.width + j, cells[best.getSquareIndex(height, width, i, j)]);
+        }
+        return transformed;
+    }
+
+    private int Compare(Transformations a, Transformations b) {
+        int widthA = a.isTransposed() ? height : width;
+        int widthB = b.isTransposed() ? height : width;
+        int lengthA = size / widthA * (widthA + 1);
+        int lengthB = size / widthB * (widthB + 1);
+        for (int k = 0; k < Math.min(lengthA, lengthB); k++) {
+            int diff = TextChar(a, widthA, k) - TextChar(b, widthB, k);
+            if (diff != 0)
+                return diff;
+        }
+        return lengthA - lengthB;
+    }
+
+    //Caracter k del texto de la transformación
+    private char TextChar(Transformations transformation, int transformedWidth, int k) {
+        int column = k % (transformedWidth + 1);
+        if (column == 0)
+            return '\n';
+        return CHARS[cells[transformation.getSquareIndex(height, width, k / (transformedWidth + 1), column - 1)]];
+    }
+
+    public static byte Cell(char c) {
+        switch (c) {
+            case ' ': return 0;
+            case '#': return WALL;
+            case '.': return GOAL;
+            case '$': return BOX;
+            case '*': return GOAL | BOX;
+            case '@': return PLAYER;
+            case '+': return GOAL | PLAYER;
+            default:
+                throw new IllegalArgumentException("Casilla desconocida: " + c);
+        }
+    }
+
+    public static char Char(byte cell) {
+        return CHARS[cell];
+    }
+
+    private void Write() {
+        if (shared) {
+            MetricsRegistry.Count(MetricsRegistry.Counter.COPY);
+            long start = System.nanoTime();
+            cells = cells.clone();
+            pieces = pieces.clone();
+            if (free != null)
+                free = free.clone();
+            MetricsRegistry.Record(MetricsRegistry.Timer.CLONE, System.nanoTime() - start);
+            shared = false;
+        }
+        hash = 0;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other)
+            return true;
+        if (!(other instanceof BoardGenome))
+            return false;
+        BoardGenome genome = (BoardGenome) other;
+        //Solo las celdas, el orden de las listas no cambia el tablero
+        return height == genome.height && width == genome.width
+                && (cells == genome.cells || Arrays.equals(cells, genome.cells));
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = 31 * height + width;
+            for (int index = 0; index < size; index++)
+                h = 31 * h + cells[index];
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * Casillas sin pared en orden, el lugar de cada casilla en ese orden (-1
+     * para las paredes) y si es IsDeadBoxSquare. Solo dependen de las paredes.
+     */
+    private static final class Floor {
+        private final short[] squares;
+        private final short[] rank;
+        private final boolean[] dead;
+
+        private Floor(BoardGenome genome) {
+            byte[] cells = genome.cells;
+            rank = new short[cells.length];
+            int count = 0;
+            for (int index = 0; index < cells.length; index++)
+                rank[index] = (short) ((cells[index] & WALL) == 0 ? count++ : -1);
+            squares = new short[count];
+            dead = new boolean[count];
+            for (int index = 0; index < cells.length; index++) {
+                if (rank[index] >= 0) {
+                    squares[rank[index]] = (short) index;
+                    dead[rank[index]] = genome.IsDeadBoxSquare(index);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(height * (width + 1));
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++)
+                sb.append(CHARS[cells[i * width + j]]);
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -5,9 +5,8 @@
 package Metaheuristics;
 
 import Metaheuristics.GA.GABoard;
-import Metaheuristics.GA.GAProblem;
 import SokoGenerator.GeneratorUtils;
-import SokoGenerator.Tree.Pair;
+import java.util.Random;
 import org.moeaframework.core.Solution;
 import org.moeaframework.core.Variation;
 
@@ -18,11 +17,11 @@ import org.moeaframework.core.Variation;
 public class BoardMutation implements Variation{
 
     private final double mutationRate;
-    Pair selectedPair;
-    Pair emptySpace;
-    public BoardMutation(double mutationRate) {
+    private final Random random;
+    public BoardMutation(double mutationRate, Random random) {
         //System.out.println("BoardMutation");
         this.mutationRate = mutationRate;
+        this.random = random;
     }
     
     @Override
@@ -37,72 +36,46 @@ public class BoardMutation implements Variation{
 
     @Override
     public Solution[] evolve(Solution[] parents) {
+        JfrEvents.Operator event = new JfrEvents.Operator();
+        event.begin();
+        long start = System.nanoTime();
+        Solution[] offspring = Evolve(parents);
+        MetricsRegistry.Record(MetricsRegistry.Timer.MUTATION, System.nanoTime() - start);
+        event.Commit(getName(), offspring[0] == parents[0] ? null : "MoveMutation", offspring[0]);
+        return offspring;
+    }
+    
+    private Solution[] Evolve(Solution[] parents) {
         //System.out.println("Mutation");
 
-        if (Metaheuristics.random.nextFloat()> Metaheuristics.P_MUTATION_PROB_GA) return parents;
+        if (random.nextFloat()> Metaheuristics.P_MUTATION_PROB_GA) return parents;
         //System.out.println("Mutation");
-        Metaheuristics.R_TOTAL_MUTATION++;
+        MetricsRegistry.Count(MetricsRegistry.Counter.MUTATION);
         
         //Clone current board state
         GABoard parent1 = (GABoard) parents[0].getVariable(0);
-        GABoard offspring1 = (GABoard) parent1.copy();  // Define offspring1 as a copy of parent1
-        char[][] cloneBoard = GeneratorUtils.CloneCharArray(offspring1.GetBoard());
+        BoardGenome cloneBoard = parent1.GetGenome().Copy();
         
         //Player : 0 , box: 1 , goal: 2
-        var randomElementIndex = Metaheuristics.random.nextInt(3);
-        int max = GeneratorUtils.CountCharacters(randomElementIndex, cloneBoard);
-        selectedPair = GeneratorUtils.FindCharacterPairIndexBased(cloneBoard, randomElementIndex,
-                Metaheuristics.random.nextInt(max));
+        var randomElementIndex = random.nextInt(3);
+        byte layer = BoardGenome.Layer(randomElementIndex);
+        int max = cloneBoard.Count(layer);
+        int selected = cloneBoard.Find(layer, random.nextInt(max));
         
         //Get a empty space
-        emptySpace = GeneratorUtils.GetEmptySpacePair(cloneBoard);
-        
-        //Replace
-        if(randomElementIndex == 0){
-            if(cloneBoard[selectedPair.i][selectedPair.j] == '+')
-                cloneBoard[selectedPair.i][selectedPair.j] = '.';
-            else
-                cloneBoard[selectedPair.i][selectedPair.j] = ' ';
-                
-            cloneBoard[emptySpace.i][emptySpace.j] = '@';
-        }
+        int emptySpace = layer == BoardGenome.BOX ? GeneratorUtils.GetBoxSpace(cloneBoard, random)
+                                                  : GeneratorUtils.GetEmptySpace(cloneBoard, random);
         
+        //Sin casilla libre (o solo casillas muertas para una caja) queda el padre
+        if (emptySpace < 0)
+            return parents;
         
-        else if(randomElementIndex == 1){
-            if(cloneBoard[selectedPair.i][selectedPair.j] == '*')
-                cloneBoard[selectedPair.i][selectedPair.j] = '.';
-            else
-                cloneBoard[selectedPair.i][selectedPair.j] = ' ';
-                
-            cloneBoard[emptySpace.i][emptySpace.j] = '$';
-        }
+        //Replace: la casilla elegida pierde la capa ('+' queda '.', '*' queda '.' o '$')
+        cloneBoard.Remove(selected, layer);
+        cloneBoard.Add(emptySpace, layer);
         
-        else if(randomElementIndex == 2){
-            if(cloneBoard[selectedPair.i][selectedPair.j] == '*')
-                cloneBoard[selectedPair.i][selectedPair.j] = '$';
-            else if(cloneBoard[selectedPair.i][selectedPair.j] == '+')
-                cloneBoard[selectedPair.i][selectedPair.j] = '@';
-            else
-                cloneBoard[selectedPair.i][selectedPair.j] = ' ';
-                
-            cloneBoard[emptySpace.i][emptySpace.j] = '.';
-        }
         
-        
-        int boxCount = GeneratorUtils.CountCharacters(1, cloneBoard);
-        if(Metaheuristics.Solve(cloneBoard, false, boxCount) != null){
-            Metaheuristics.R_TOTAL_EFFECTIVE_MUTATION++;
-            offspring1.SetBoard(cloneBoard);
-            
-            Solution solution1 = new Solution(1, 1); // 1 variable, 2 objetivos (ejemplo)
-            solution1.setVariable(0, offspring1);
-            solution1.setObjective(0, Metaheuristics.application.movesHistory.getPushesCount());
-            
-            cloneBoard=null;
-            return new Solution[]{solution1};  
-        }
-
-        cloneBoard=null;
-        return parents;
+        //Se evalua junto al resto de la generación
+        return new Solution[]{OffspringEvaluator.Pending(cloneBoard, parents[0], OffspringEvaluator.Effect.MUTATION)};
     }    
 }
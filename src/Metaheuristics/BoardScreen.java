@@ -0,0 +1,101 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metaheuristics;
+
+import de.sokoban_online.jsoko.board.Board;
+import de.sokoban_online.jsoko.board.DirectionConstants;
+import de.sokoban_online.jsoko.deadlockdetection.BipartiteMatchings;
+import de.sokoban_online.jsoko.deadlockdetection.FreezeDeadlockDetection;
+import de.sokoban_online.jsoko.resourceHandling.Settings.SearchDirection;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Pre-screen de tableros antes de llamar al solver.
+ *
+ * Usa las detecciones de deadlock de JSoko sobre el tablero ya preparado y
+ * descarta los tableros que seguro no tienen solución: una caja en un
+ * simple deadlock, cajas congeladas fuera de una meta, cajas que no pueden
+ * llegar cada una a su propia meta, o un jugador que no puede empujar
+ * ninguna caja. Se cuenta cuántos tableros descarta cada regla.
+ *
+ * @author Hans
+ */
+public class BoardScreen {
+
+    public enum Rule {
+        INVALID,
+        SIMPLE_DEADLOCK,
+        FREEZE_DEADLOCK,
+        NO_MATCHING,
+        NO_PUSH
+    }
+
+    private static final AtomicLongArray rejections = new AtomicLongArray(Rule.values().length);
+
+    private final Board board;
+
+    public BoardScreen(Board board) {
+        this.board = board;
+    }
+
+    /**
+     * Devuelve la regla que descarta el tablero cargado en board, o null si
+     * ninguna lo descarta. El tablero debe estar preparado (prepareBoard).
+     */
+    public Rule Check() {
+
+        //Caja en un simple deadlock
+        for (int boxNo = 0; boxNo < board.boxCount; boxNo++) {
+            if (board.isSimpleDeadlockSquare(board.boxData.getBoxPosition(boxNo)))
+                return Rule.SIMPLE_DEADLOCK;
+        }
+
+        //Cajas congeladas, primero las que están en una meta (ver DeadlockDetection.isDeadlock)
+        FreezeDeadlockDetection freezeDeadlockDetection = new FreezeDeadlockDetection(board);
+        board.boxData.setAllBoxesNotFrozen();
+        for (int boxNo = 0; boxNo < board.boxCount; boxNo++) {
+            int boxPosition = board.boxData.getBoxPosition(boxNo);
+            if (board.isBoxOnGoal(boxPosition) && !board.boxData.isBoxFrozen(boxNo)
+                    && freezeDeadlockDetection.isDeadlock(boxPosition, true))
+                return Rule.FREEZE_DEADLOCK;
+        }
+        for (int boxNo = 0; boxNo < board.boxCount; boxNo++) {
+            int boxPosition = board.boxData.getBoxPosition(boxNo);
+            if (!board.isBoxOnGoal(boxPosition) && freezeDeadlockDetection.isDeadlock(boxPosition, true))
+                return Rule.FREEZE_DEADLOCK;
+        }
+
+        //Cada caja necesita una meta propia (usa las cajas congeladas de arriba)
+        if (new BipartiteMatchings(board).isDeadlock(SearchDirection.FORWARD))
+            return Rule.NO_MATCHING;
+
+        //El jugador tiene que poder empujar alguna caja, salvo que ya esté resuelto
+        if (!board.boxData.isEveryBoxOnAGoal() && !IsAnyPushPossible())
+            return Rule.NO_PUSH;
+
+        return null;
+    }
+
+    private boolean IsAnyPushPossible() {
+        board.playersReachableSquares.update();
+        for (int boxNo = 0; boxNo < board.boxCount; boxNo++) {
+            int boxPosition = board.boxData.getBoxPosition(boxNo);
+            for (int direction = 0; direction < DirectionConstants.DIRS_COUNT; direction++) {
+                if (board.playersReachableSquares.isSquareReachable(boxPosition - board.offset[direction])
+                        && board.isAccessibleBox(boxPosition + board.offset[direction]))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    public static void CountRejection(Rule rule) {
+        rejections.incrementAndGet(rule.ordinal());
+    }
+
+    public static long GetRejections(Rule rule) {
+        return rejections.get(rule.ordinal());
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metaheuristics;
+
+import SokoGenerator.Tree.Pair;
+import java.util.Arrays;
+
+/**
+ * Regiones candidatas para el cruce (BoardCrossover y DECrossover): las
+ * regiones de CrossWindows donde el padre tiene el jugador, una caja o una
+ * meta. Cada operador tiene la suya y reusa sus arreglos, así buscar las
+ * regiones no crea objetos y cuesta O(piezas + regiones): se marcan las
+ * piezas del padre en dos máscaras de bits (por filas y por columnas) y cada
+ * región se prueba con una o dos palabras.
+ *
+ * @author Hans
+ */
+public final class CrossPivots {
+    private static final byte[] PIECES = {BoardGenome.PLAYER, BoardGenome.BOX, BoardGenome.GOAL};
+
+    private CrossWindows windows;
+    //Piezas de cada padre, por filas y por columnas
+    private final long[][] rows = {new long[0], new long[0]};
+    private final long[][] columns = {new long[0], new long[0]};
+    //Regiones candidatas y de qué padre se toman (0: el primero, 1: el segundo)
+    private int[] candidates = new int[0];
+    private byte[] sources = new byte[0];
+    private int count;
+
+    //Regiones con alguna pieza del padre
+    public void Find(BoardGenome parent) {
+        Find(parent, null);
+    }
+
+    /**
+     * Regiones con alguna pieza de alguno de los dos padres. Si la región
+     * sirve en los dos se toma del primero. Los dos padres vienen del mismo
+     * tablero base, así tienen las mismas regiones.
+     */
+    public void Find(BoardGenome first, BoardGenome second) {
+        windows = CrossWindows.For(first, Metaheuristics.P_CROSS_SPACING);
+        if (candidates.length < windows.Count()) {
+            candidates = new int[windows.Count()];
+            sources = new byte[windows.Count()];
+        }
+
+        Mark(first, 0);
+        if (second != null)
+            Mark(second, 1);
+
+        count = 0;
+        for (int window = 0; window < windows.Count(); window++) {
+            if (HasPieces(window, 0))
+                sources[count] = 0;
+            else if (second != null && HasPieces(window, 1))
+                sources[count] = 1;
+            else
+                continue;
+            candidates[count++] = window;
+        }
+    }
+
+    public int Count() {
+        return count;
+    }
+
+    public int Source(int candidate) {
+        return sources[candidate];
+    }
+
+    /**
+     * Copia la región candidata desde from hasta to y deja en exclude la
+     * casilla que sigue a la región (la que no se toca al sacar cajas y metas
+     * de más, ver IsLegal en los operadores).
+     */
+    public void Copy(int candidate, BoardGenome from, BoardGenome to, Pair exclude) {
+        int window = candidates[candidate];
+        int index = windows.Start(window);
+        int step = windows.IsVertical(window) ? to.GetWidth() : 1;
+        for (int k = 0; k < windows.GetSpacing(); k++)
+            to.Set(index + k * step, from.Get(index + k * step));
+
+        exclude.i = to.Row(index);
+        exclude.j = to.Column(index);
+        if (windows.IsVertical(window))
+            exclude.i += windows.GetSpacing();
+        else
+            exclude.j += windows.GetSpacing();
+    }
+
+    //Deja en las máscaras del padre solo las piezas del tablero
+    private void Mark(BoardGenome board, int parent) {
+        int words = (board.GetSize() + 63) >>> 6;
+        if (rows[parent].length < words) {
+            rows[parent] = new long[words];
+            columns[parent] = new long[words];
+        }
+        long[] byRows = rows[parent];
+        long[] byColumns = columns[parent];
+        Arrays.fill(byRows, 0L);
+        Arrays.fill(byColumns, 0L);
+
+        int height = board.GetHeight();
+        for (byte layer : PIECES) {
+            for (int k = 0; k < board.Count(layer); k++) {
+                int index = board.Find(layer, k);
+                int column = board.Column(index) * height + board.Row(index);
+                byRows[index >>> 6] |= 1L << index;
+                byColumns[column >>> 6] |= 1L << column;
+            }
+        }
+    }
+
+    //true si alguno de los bits de la región está en la máscara del padre
+    private boolean HasPieces(int window, int parent) {
+        long[] mask = windows.IsVertical(window) ? columns[parent] : rows[parent];
+        int from = windows.Bit(window);
+        int to = from + windows.GetSpacing();
+        int word = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long first = -1L << from;
+        long last = -1L >>> -to;
+        if (word == lastWord)
+            return (mask[word] & first & last) != 0;
+        if ((mask[word] & first) != 0)
+            return true;
+        for (word++; word < lastWord; word++) {
+            if (mask[word] != 0)
+                return true;
+        }
+        return (mask[lastWord] & last) != 0;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metaheuristics;
+
+/**
+ * Regiones de cruce de un tablero base: todas las filas y columnas de
+ * P_CROSS_SPACING casillas seguidas sin paredes. Solo dependen de las paredes,
+ * así se calculan una vez por tablero base y las comparten todas sus copias
+ * (ver BoardGenome.Copy). Las regiones van fila por fila y, en cada casilla,
+ * la horizontal antes que la vertical.
+ *
+ * Cada región guarda además su primer bit en una máscara de casillas: fila
+ * por fila para las horizontales y columna por columna para las verticales,
+ * así las casillas de cualquier región son bits seguidos (ver CrossPivots).
+ *
+ * @author Hans
+ */
+public final class CrossWindows {
+    private final int spacing;
+    private final int count;
+    private final int[] start;
+    private final boolean[] vertical;
+    private final int[] bit;
+
+    private CrossWindows(BoardGenome board, int spacing) {
+        this.spacing = spacing;
+        int height = board.GetHeight();
+        int width = board.GetWidth();
+
+        int[] start = new int[2 * board.GetSize()];
+        boolean[] vertical = new boolean[start.length];
+        int[] bit = new int[start.length];
+        int count = 0;
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                if (j + spacing <= width && IsFree(board, board.Index(i, j), 1)) {
+                    start[count] = board.Index(i, j);
+                    bit[count] = board.Index(i, j);
+                    count++;
+                }
+                if (i + spacing <= height && IsFree(board, board.Index(i, j), width)) {
+                    start[count] = board.Index(i, j);
+                    vertical[count] = true;
+                    bit[count] = j * height + i;
+                    count++;
+                }
+            }
+        }
+        this.count = count;
+        this.start = start;
+        this.vertical = vertical;
+        this.bit = bit;
+    }
+
+    /**
+     * Regiones del tablero para el ancho dado. Se guardan en el tablero y se
+     * vuelven a calcular solo si cambia el ancho o alguna pared.
+     */
+    public static CrossWindows For(BoardGenome board, int spacing) {
+        CrossWindows windows = board.windows;
+        if (windows == null || windows.spacing != spacing) {
+            windows = new CrossWindows(board, spacing);
+            board.windows = windows;
+        }
+        return windows;
+    }
+
+    private boolean IsFree(BoardGenome board, int index, int step) {
+        for (int k = 0; k < spacing; k++) {
+            if ((board.Get(index + k * step) & BoardGenome.WALL) != 0)
+                return false;
+        }
+        return true;
+    }
+
+    public int GetSpacing() {
+        return spacing;
+    }
+
+    public int Count() {
+        return count;
+    }
+
+    public int Start(int window) {
+        return start[window];
+    }
+
+    public boolean IsVertical(int window) {
+        return vertical[window];
+    }
+
+    //Primer bit de la región en su máscara (filas o columnas)
+    public int Bit(int window) {
+        return bit[window];
+    }
+}
@@ -4,6 +4,9 @@
  */
 package Metaheuristics.DE;
 
+import Metaheuristics.OffspringEvaluator;
+import java.util.ArrayList;
+import java.util.List;
 import org.moeaframework.algorithm.single.AggregateObjectiveComparator;
 import org.moeaframework.algorithm.single.LinearDominanceComparator;
 import org.moeaframework.algorithm.single.SingleObjectiveEvolutionaryAlgorithm;
@@ -67,22 +70,23 @@ public class AlgDE extends SingleObjectiveEvolutionaryAlgorithm {
 	protected void iterate() {
             Population population = getPopulation();
             DifferentialEvolutionVariation variation = getVariation();
-            Population children = new Population();
+            ArrayList<Solution> candidates = new ArrayList<>();
 
             //generate children
             for (int i = 0; i < population.size(); i++) {
                     selection.setCurrentIndex(i);
 
                     Solution[] parents = selection.select(variation.getArity(), population);
-                    children.add(variation.evolve(parents)[0]);
+                    candidates.add(variation.evolve(parents)[0]);
             }
 
-            //evaluate children
-            //evaluateAll(children);
+            //evaluate children in parallel
+            List<Solution> children = OffspringEvaluator.EvaluateAll(candidates);
 
             //greedy selection of next population
             for (int i = 0; i < population.size(); i++) {
-                    if (((DominanceComparator)comparator).compare(children.get(i), population.get(i)) < 0) {
+                    if (children.get(i) != null
+                                    && ((DominanceComparator)comparator).compare(children.get(i), population.get(i)) < 0) {
                             population.replace(i, children.get(i));
                     }
             }
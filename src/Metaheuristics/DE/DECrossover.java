@@ -4,13 +4,15 @@
  */
 package Metaheuristics.DE;
 
+import Metaheuristics.BoardGenome;
+import Metaheuristics.CrossPivots;
 import Metaheuristics.GA.GABoard;
+import Metaheuristics.JfrEvents;
 import Metaheuristics.Metaheuristics;
+import Metaheuristics.MetricsRegistry;
+import Metaheuristics.OffspringEvaluator;
 import SokoGenerator.GeneratorUtils;
-import SokoGenerator.Tree.CrossPair;
 import SokoGenerator.Tree.Pair;
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Random;
 import org.moeaframework.core.Solution;
 import org.moeaframework.core.operator.real.DifferentialEvolutionVariation;
@@ -22,37 +24,38 @@ import org.moeaframework.core.operator.real.DifferentialEvolutionVariation;
 public class DECrossover extends DifferentialEvolutionVariation{
     
     private final double crossoverRate;
-    private final Random random = new Random();
-    de.sokoban_online.jsoko.leveldata.solutions.Solution solution;
-    private Pair pivot;
-    private Pair pivotAux;
-    private final Pair right;
-    private final Pair down;
-    
-    ArrayList<DECrossPair> interestingPivots;
-    ArrayList<Character> regionChars;
+    private final Random random;
+    //Regiones candidatas y casilla que sigue a la región copiada
+    private final CrossPivots pivots;
+    private final Pair exclude;
    
             
-    public DECrossover(double crossoverRate, double scalingFactor) {
+    public DECrossover(double crossoverRate, double scalingFactor, Random random) {
         super(crossoverRate, scalingFactor);
         System.out.println("GABoardCrossover");
         this.crossoverRate = crossoverRate;
+        this.random = random;
         
-        pivot = new Pair(0,0);
-        pivotAux = new Pair(0,0);
-        right = new Pair(0,1);
-        down = new Pair(1,0);
-        
-        interestingPivots = new ArrayList<>();
-        regionChars = new ArrayList<>();
+        pivots = new CrossPivots();
+        exclude = new Pair(0,0);
     }
     
     @Override
     public Solution[] evolve(Solution[] parents) {
+        JfrEvents.Operator event = new JfrEvents.Operator();
+        event.begin();
+        long start = System.nanoTime();
+        Solution[] offspring = Evolve(parents);
+        MetricsRegistry.Record(MetricsRegistry.Timer.CROSSOVER, System.nanoTime() - start);
+        event.Commit("DECrossover", offspring[0] == parents[0] ? null : "Crossover", offspring[0]);
+        return offspring;
+    }
+    
+    private Solution[] Evolve(Solution[] parents) {
 
         if (random.nextFloat() > crossoverRate) return parents;
       
-        Metaheuristics.R_TOTAL_CROSSOVER++;
+        MetricsRegistry.Count(MetricsRegistry.Counter.CROSSOVER);
         
         //Parent 1
         GABoard parent1 = (GABoard) parents[0].getVariable(0);
@@ -60,106 +63,63 @@ public class DECrossover extends DifferentialEvolutionVariation{
         GABoard parent3 = (GABoard) parents[2].getVariable(0);
         
         //offspring1 = (GABoard) parent1.copy();  // Define offspring1 as a copy of parent1
-        char[][] cloneBoard_1 = GeneratorUtils.CloneCharArray(parent1.GetBoard());
-        
-        //Get candidates
-        GetInterestingPivots(parent2.GetBoard(), parent2);
-        GetInterestingPivots(parent3.GetBoard(), parent3);
+        BoardGenome cloneBoard_1 = parent1.GetGenome().Copy();
         
-        //Remove duplicates
-        RemoveDuplicates();
+        //Get candidates (sin repetir regiones, se toman de parent2 si están en los dos)
+        pivots.Find(parent2.GetGenome(), parent3.GetGenome());
         
         //Crossover
-        if(interestingPivots.isEmpty()){
+        if(pivots.Count() == 0){
             System.out.println("-> interestingPivotsList de largo 0");
         }
             
         else{
-            //Select a random region
-            var randomInterestingPivot = interestingPivots.get(Metaheuristics.random.nextInt(interestingPivots.size()));
-
-            //Put random region in clone
-            for(int i = 0 ; i < Metaheuristics.P_CROSS_SPACING ; i++){
-                var charClone =  randomInterestingPivot.gaBoard.GetBoard()
-                        [randomInterestingPivot.pair.i][randomInterestingPivot.pair.j];
-
-                cloneBoard_1[randomInterestingPivot.pair.i][randomInterestingPivot.pair.j] = charClone;
-                randomInterestingPivot.pair = randomInterestingPivot.pair.plus(randomInterestingPivot.dir);
-            }
+            //Select a random region and put it in clone
+            int randomInterestingPivot = random.nextInt(pivots.Count());
+            GABoard source = pivots.Source(randomInterestingPivot) == 0 ? parent2 : parent3;
+            pivots.Copy(randomInterestingPivot, source.GetGenome(), cloneBoard_1, exclude);
             
             //Check if clone is legal
-            boolean isLegal = IsLegal(cloneBoard_1, randomInterestingPivot);
+            boolean isLegal = IsLegal(cloneBoard_1, exclude);
+            Solution offspring;
             if(isLegal){
-                int boxCount = GeneratorUtils.CountCharacters(1, cloneBoard_1);
-                
-                solution = Metaheuristics.Solve(cloneBoard_1, false, boxCount);
-                if(solution != null){
-                    Metaheuristics.R_TOTAL_EFFECTIVE_CROSSOVER++;
-                    
-                    GABoard offspring1 = new GABoard(cloneBoard_1);
-                    
-                    Solution solution1 = new Solution(1, 1); // 1 variable, 2 objetivos (ejemplo)
-                    solution1.setVariable(0, offspring1);
-                    solution1.setObjective(0, Metaheuristics.application.movesHistory.getPushesCount());
-                    cloneBoard_1=null;
-                    interestingPivots.clear();
-                    regionChars.clear();
-                    
-                    return new Solution[]{solution1};  
-                }
+                offspring = OffspringEvaluator.Pending(cloneBoard_1, parents[0], OffspringEvaluator.Effect.CROSSOVER);
             }
             else{
                 //repair illegal
                 RepairIllegal(cloneBoard_1);
                 
                 //Retry
-                int boxCount = GeneratorUtils.CountCharacters(1, cloneBoard_1);
-                solution = Metaheuristics.Solve(cloneBoard_1, false, boxCount);
-                if(solution != null){
-                    Metaheuristics.R_TOTAL_EFFECTIVE_REPAIR++;
-                    Metaheuristics.R_TOTAL_EFFECTIVE_CROSSOVER++;
-                    GABoard offspring1 = new GABoard(cloneBoard_1);
-                    
-                    Solution solution1 = new Solution(1, 1); // 1 variable, 2 objetivos (ejemplo)
-                    solution1.setVariable(0, offspring1);
-                    solution1.setObjective(0, Metaheuristics.application.movesHistory.getPushesCount());
-                    cloneBoard_1=null;
-                    interestingPivots.clear();
-                    regionChars.clear();
-
-                    return new Solution[]{solution1};  
-                }
-                
+                offspring = OffspringEvaluator.Pending(cloneBoard_1, parents[0], OffspringEvaluator.Effect.REPAIRED_CROSSOVER);
             }
+            
+            //Se evalua junto al resto de la generación
+            return new Solution[]{offspring};
         }
 
         cloneBoard_1=null;
-        interestingPivots.clear();
-        regionChars.clear();
         return parents;    
     }
     
-    public void RepairIllegal(char[][] cloneBoard){
+    public void RepairIllegal(BoardGenome cloneBoard){
         
-        Metaheuristics.R_TOTAL_REPAIR++;
+        MetricsRegistry.Count(MetricsRegistry.Counter.REPAIR);
         
         //Check illegality
-        int playerCount = GeneratorUtils.CountCharacters(0, cloneBoard);
-        int boxCount = GeneratorUtils.CountCharacters(1, cloneBoard);
-        int goalCount = GeneratorUtils.CountCharacters(2, cloneBoard);
+        int playerCount = cloneBoard.Count(BoardGenome.PLAYER);
+        int boxCount = cloneBoard.Count(BoardGenome.BOX);
+        int goalCount = cloneBoard.Count(BoardGenome.GOAL);
         
         //For player
         if(playerCount > 1){
-            int specificPlayerCount = Metaheuristics.random.nextInt(2);
-            Pair playerIndex = GeneratorUtils.FindCharacterPairIndexBased(cloneBoard, 0, specificPlayerCount);
-            if(cloneBoard[playerIndex.i][playerIndex.j] == '+')
-                cloneBoard[playerIndex.i][playerIndex.j] = '.';
-            else
-                cloneBoard[playerIndex.i][playerIndex.j] = ' ';
+            int specificPlayerCount = random.nextInt(2);
+            int playerIndex = cloneBoard.Find(BoardGenome.PLAYER, specificPlayerCount);
+            cloneBoard.Remove(playerIndex, BoardGenome.PLAYER);
         }
         else if (playerCount == 0){
-            Pair emptySpace = GeneratorUtils.GetEmptySpacePair(cloneBoard);
-            cloneBoard[emptySpace.i][emptySpace.j] = '@';
+            int emptySpace = GeneratorUtils.GetEmptySpace(cloneBoard, random);
+            if(emptySpace >= 0)
+                cloneBoard.Add(emptySpace, BoardGenome.PLAYER);
         }
         
         //For boxes
@@ -168,17 +128,22 @@ public class DECrossover extends DifferentialEvolutionVariation{
             
             while(diff != 0){
                 
-                Pair emptySpace = GeneratorUtils.GetEmptySpacePair(cloneBoard);
-                cloneBoard[emptySpace.i][emptySpace.j] = '.';
+                int emptySpace = GeneratorUtils.GetEmptySpace(cloneBoard, random);
+                //Sin casillas libres el tablero queda sin reparar (no pasa el pre-screen)
+                if(emptySpace < 0)
+                    break;
+                cloneBoard.Add(emptySpace, BoardGenome.GOAL);
                 goalCount++;
                 diff--;
             }
         }
         
         else if(boxCount == 0 ){
-            Pair emptySpace = GeneratorUtils.GetEmptySpacePair(cloneBoard);
-            cloneBoard[emptySpace.i][emptySpace.j] = '$';
-            boxCount++;
+            int emptySpace = GeneratorUtils.GetBoxSpace(cloneBoard, random);
+            if(emptySpace >= 0){
+                cloneBoard.Add(emptySpace, BoardGenome.BOX);
+                boxCount++;
+            }
         }
         
         //For goals
@@ -187,17 +152,22 @@ public class DECrossover extends DifferentialEvolutionVariation{
             
             while(diff != 0){
                 
-                Pair emptySpace = GeneratorUtils.GetEmptySpacePair(cloneBoard);
-                cloneBoard[emptySpace.i][emptySpace.j] = '$';
+                int emptySpace = GeneratorUtils.GetBoxSpace(cloneBoard, random);
+                //Sin casillas libres el tablero queda sin reparar (no pasa el pre-screen)
+                if(emptySpace < 0)
+                    break;
+                cloneBoard.Add(emptySpace, BoardGenome.BOX);
                 boxCount++;
                 diff--;
             }
         }
         
         else if(goalCount == 0 ){
-            Pair emptySpace = GeneratorUtils.GetEmptySpacePair(cloneBoard);
-            cloneBoard[emptySpace.i][emptySpace.j] = '.';
-            goalCount++;
+            int emptySpace = GeneratorUtils.GetEmptySpace(cloneBoard, random);
+            if(emptySpace >= 0){
+                cloneBoard.Add(emptySpace, BoardGenome.GOAL);
+                goalCount++;
+            }
         }
         
         //System.out.println("Despúes");
@@ -205,100 +175,22 @@ public class DECrossover extends DifferentialEvolutionVariation{
         //System.out.println("----------------------");
     }
     
-    public void  RemoveDuplicates() {
-        HashSet<DECrossPair> set = new HashSet<>(interestingPivots);
-        interestingPivots = new ArrayList<>(set);
-    }
-    
-    
-    public void GetInterestingPivots(char[][] otherGenes, GABoard gaBoard){
-                
-        for(int i = 0 ; i < otherGenes.length ; i++){
-            for(int j = 0 ; j < otherGenes[0].length ; j++){
-                
-                pivot = new Pair(i,j);
-                if(otherGenes[pivot.i][pivot.j] == '#') continue;
-                
-                pivotAux.i = pivot.i;
-                pivotAux.j = pivot.j;
-
-                regionChars.clear();
-                //Check horizontal
-                for(int k = 0 ; k < Metaheuristics.P_CROSS_SPACING; k++){
-                   
-                    if(pivotAux.j > otherGenes[0].length - Metaheuristics.P_CROSS_SPACING || otherGenes[pivotAux.i][pivotAux.j] == '#') {
-                        break;
-                    }
-                    
-                    regionChars.add(otherGenes[pivotAux.i][pivotAux.j]);
-                    pivotAux = pivotAux.plus(right);
-
-                }
-                
-                //Try add
-                if(regionChars.size() == Metaheuristics.P_CROSS_SPACING){
-                    if((regionChars.contains('@') || regionChars.contains('+') || regionChars.contains('$') || 
-                           regionChars.contains('.') || regionChars.contains('*')) && !regionChars.contains('#')){
-                        interestingPivots.add(new DECrossPair( new Pair(pivot.i, pivot.j), new Pair(0,1), gaBoard));
-                    }
-                }
-                
-                pivotAux.i = pivot.i;
-                pivotAux.j = pivot.j;
-                regionChars.clear();
-                //Check vertical
-                for(int k = 0 ; k < Metaheuristics.P_CROSS_SPACING; k++){
-                    
-                    if(pivotAux.i > otherGenes.length - Metaheuristics.P_CROSS_SPACING || otherGenes[pivotAux.i][pivotAux.j] == '#'){
-                        break;
-                    } 
-                    
-                    regionChars.add(otherGenes[pivotAux.i][pivotAux.j]);
-                    pivotAux = pivotAux.plus(down);
-                }
-                
-                  //Try add
-                if(regionChars.size() == Metaheuristics.P_CROSS_SPACING){
-                    if(regionChars.contains('@') || regionChars.contains('+') || regionChars.contains('$') || 
-                           regionChars.contains('.') || regionChars.contains('*')){
-                    interestingPivots.add(new DECrossPair( new Pair(pivot.i, pivot.j), new Pair(1,0), gaBoard));
-                    }
-                }
-            }
-        } 
-    }
-    
-    public boolean IsLegal(char[][] board, CrossPair newCrossPair){
+    public boolean IsLegal(BoardGenome board, Pair excludePair){
         
-        int playerCount =  GeneratorUtils.CountCharacters(0, board);
-        int boxCount = GeneratorUtils.CountCharacters(1, board);
-        int goalCount = GeneratorUtils.CountCharacters(2, board);
+        int playerCount =  board.Count(BoardGenome.PLAYER);
+        int boxCount = board.Count(BoardGenome.BOX);
+        int goalCount = board.Count(BoardGenome.GOAL);
       
         if(boxCount > Metaheuristics.P_MAX_BOXES){
             
-            Pair boxToRemove = GeneratorUtils.RemoveRandomElementByType(1,boxCount,newCrossPair.pair, board);
-            Pair goalToRemove = GeneratorUtils.RemoveRandomElementByType(2,goalCount,newCrossPair.pair, board);
+            int boxToRemove = GeneratorUtils.RemoveRandomElementByType(1,boxCount,excludePair, board, random);
+            int goalToRemove = GeneratorUtils.RemoveRandomElementByType(2,goalCount,excludePair, board, random);
             
-            //Replace box
-            if(board[boxToRemove.i][boxToRemove.j] == '$')
-                board[boxToRemove.i][boxToRemove.j] = ' ';
-            else if(board[boxToRemove.i][boxToRemove.j] == '*')
-                board[boxToRemove.i][boxToRemove.j] = '.';
+            //Replace box ('*' queda '.')
+            board.Remove(boxToRemove, BoardGenome.BOX);
             
-            //Replace goal
-            switch (board[goalToRemove.i][goalToRemove.j]) {
-                case '.':
-                    board[goalToRemove.i][goalToRemove.j] = ' ';
-                    break;
-                case '*':
-                    board[goalToRemove.i][goalToRemove.j] = '$';
-                    break;
-                case '+':
-                    board[goalToRemove.i][goalToRemove.j] = '@';
-                    break;
-                default:
-                    break;
-            }
+            //Replace goal ('*' queda '$', '+' queda '@')
+            board.Remove(goalToRemove, BoardGenome.GOAL);
         }
         
         if(playerCount != 1)
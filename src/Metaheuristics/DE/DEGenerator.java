@@ -9,11 +9,7 @@ import Metaheuristics.GA.GAProblem;
 import Metaheuristics.MetaComparator;
 import Metaheuristics.MetaInitialize;
 import Metaheuristics.Metaheuristics;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import Metaheuristics.MetricsSink;
 import java.util.Date;
 import org.moeaframework.core.Algorithm;
 import org.moeaframework.core.Population;
@@ -26,18 +22,14 @@ import org.moeaframework.core.selection.DifferentialEvolutionSelection;
  */
 public class DEGenerator {
     
-    //List for results
-    ArrayList<Double> bestFitnessPerGeneration = new ArrayList<>();
-    ArrayList<Double> worstFitnessPerGeneration = new ArrayList<>();
-    ArrayList<Float> avgFitnessPerGeneration = new ArrayList<>();
-    ArrayList<String> stdDevFitnessPerGeneration = new ArrayList<>();
     
     public void Start(){
         System.out.println("Running DEGenerator");
         Metaheuristics.Init();
         
         // Crear operadores de crossover y mutación
-        DECrossover gaBoardCrossover = new DECrossover(Metaheuristics.P_CROSSOVER_PROB_DE, .2);
+        DECrossover gaBoardCrossover = new DECrossover(Metaheuristics.P_CROSSOVER_PROB_DE, .2,
+                Metaheuristics.NewStream(Metaheuristics.random));
         
         // Crear el comparador para problemas monoobjetivo
         MetaComparator gaComparator = new MetaComparator();
@@ -45,7 +37,7 @@ public class DEGenerator {
         // Problem
         GAProblem gaProblem = new GAProblem(Metaheuristics.application);
         
-        MetaInitialize gaInitialize = new MetaInitialize(gaProblem);
+        MetaInitialize gaInitialize = new MetaInitialize(gaProblem, Metaheuristics.NewStream(Metaheuristics.random));
         
         
         Algorithm algDE = new AlgDE(
@@ -56,7 +48,8 @@ public class DEGenerator {
                 new DifferentialEvolutionSelection(),
                 gaBoardCrossover
         );
-        Population population = null;
+        //Una fila por generación, escrita apenas termina
+        MetricsSink metrics = MetricsSink.Open(Metaheuristics.P_RESULTS_NAME, Metaheuristics.I_ALG_NAME);
         // Ejecutar el algoritmo por un número determinado de generaciones
         for (int generation = 0; !Metaheuristics.STOP ; generation++) {
             System.out.println("Generation: " + generation);
@@ -66,42 +59,7 @@ public class DEGenerator {
             Metaheuristics.TOTALTIME += Metaheuristics.E_TIME-Metaheuristics.S_TIME;
             
             // Registrar estadísticas de la población actual
-            double bestFitness = Double.NEGATIVE_INFINITY;
-            double worstFitness = Double.POSITIVE_INFINITY;
-            double totalFitness = 0.0;
-            double totalFitnessSquared = 0.0;
-            
-            // Obtener la población actual
-            population = ((AlgDE) algDE).getPopulation();
-            Solution solution;
-            // Imprimir la población actual
-            for (int j = 0; j < population.size(); j++) {
-
-                solution = population.get(j);
-                double fitness = solution.getObjective(0); 
-
-                if (fitness > bestFitness) {
-                    bestFitness = fitness;
-                }
-                if (fitness < worstFitness) {
-                    worstFitness = fitness;
-                }
-                
-                totalFitness += fitness;
-                totalFitnessSquared += fitness * fitness;
-            }
-            
-            
-            float avgFitness = (float)(totalFitness / population.size());
-            float stdDevFitness = (float)(Math.sqrt((totalFitnessSquared / population.size()) - (avgFitness * avgFitness)));
-
-            solution=null;
-            population=null;
-            
-            bestFitnessPerGeneration.add(bestFitness);
-            worstFitnessPerGeneration.add(worstFitness);
-            avgFitnessPerGeneration.add(avgFitness);
-            stdDevFitnessPerGeneration.add(String.format("%.2f", stdDevFitness).replace(',', '.'));
+            metrics.Record(MetricsSink.GenerationStats(((AlgDE) algDE).getPopulation()));
             
             if(generation%2 == 0){
                 //System.gc();
@@ -111,58 +69,14 @@ public class DEGenerator {
             } 
         }
 
-        GetResults(algDE);
+        GetResults(algDE, metrics);
         
     }
     
-    public void GetResults(Algorithm alg){
-        // Obtener el directorio de trabajo
-        String directoryPath = "."; // Puedes especificar un directorio diferente si es necesario
-
-        // Contar archivos en el directorio
-        File directory = new File(directoryPath+"/Tests");
-        int fileCount = directory.list().length;
-
-        // Obtener la fecha actual en el formato deseado
-        String date = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
-
-        // Construir el nombre del archivo
-        String fileName = String.format("Tests/GA_Results_%d_%s.csv", fileCount + 1, date);
-
+    public void GetResults(Algorithm alg, MetricsSink metrics){
         // Obtener el mejor tablero del algoritmo
         Solution bestSolution = GetBestSOlution(alg);
-        char[][] board = ((GABoard)bestSolution.getVariable(0)).GetBoard();
-
-        // Exportar resultados a un archivo CSV
-        try (FileWriter csvWriter = new FileWriter(fileName)) {
-            csvWriter.append(Metaheuristics.I_ALG_NAME + "\n");
-            // Crear encabezados
-            csvWriter.append("Generation,Best Fitness,Worst Fitness,Average Fitness,Standard Deviation\n");
-
-            // Rellenar datos
-            for (int i = 0; i < bestFitnessPerGeneration.size(); i++) {
-                csvWriter.append(String.valueOf(i)).append(",")
-                        .append(String.valueOf(bestFitnessPerGeneration.get(i))).append(",")
-                        .append(String.valueOf(worstFitnessPerGeneration.get(i))).append(",")
-                        .append(String.valueOf(Metaheuristics.round(avgFitnessPerGeneration.get(i), 1))).append(",")
-                        .append(String.valueOf(stdDevFitnessPerGeneration.get(i)));
-
-                csvWriter.append("\n");
-            }
-
-            csvWriter.append("\n");
-
-            for (char[] board1 : board) {
-                for (int col = 0; col < board1.length; col++)
-                    csvWriter.append(String.valueOf(board1[col]));
-
-                csvWriter.append("\n");
-            }
-
-            csvWriter.append(bestSolution.getObjective(0)+"");
-            System.out.println("Resultados exportados a " + fileName);
-
-        } catch (IOException e) {} 
+        metrics.Close(((GABoard)bestSolution.getVariable(0)).GetBoard(), bestSolution.getObjective(0));
 
         //alg.getResult().display();
         Metaheuristics.PrintStatistics();
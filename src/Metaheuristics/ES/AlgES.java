@@ -4,6 +4,9 @@
  */
 package Metaheuristics.ES;
 
+import Metaheuristics.OffspringEvaluator;
+import java.util.ArrayList;
+import java.util.Arrays;
 import org.moeaframework.algorithm.single.AggregateObjectiveComparator;
 import org.moeaframework.algorithm.single.LinearDominanceComparator;
 import org.moeaframework.algorithm.single.SelfAdaptiveNormalVariation;
@@ -57,15 +60,21 @@ public class AlgES extends SingleObjectiveEvolutionaryAlgorithm {
         SelfAdaptiveNormalVariation variation = (SelfAdaptiveNormalVariation) getVariation();
         Population offspring = new Population();
         int populationSize = population.size();
+        ArrayList<Solution> candidates = new ArrayList<>();
 
         for (int i = 0; i < population.size(); i++) {
                 Solution[] parents = new Solution[] { population.get(i) };
                 Solution[] children = variation.evolve(parents);
 
-                offspring.addAll(children);
+                candidates.addAll(Arrays.asList(children));
         }
 
-        //evaluateAll(offspring);
+        //evaluate offspring in parallel
+        for (Solution child : OffspringEvaluator.EvaluateAll(candidates)) {
+                if (child != null) {
+                        offspring.add(child);
+                }
+        }
 
         population.addAll(offspring);
         population.truncate(populationSize, comparator);
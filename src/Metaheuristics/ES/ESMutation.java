@@ -4,10 +4,14 @@
  */
 package Metaheuristics.ES;
 
+import Metaheuristics.BoardGenome;
 import Metaheuristics.GA.GABoard;
+import Metaheuristics.JfrEvents;
 import Metaheuristics.Metaheuristics;
+import Metaheuristics.MetricsRegistry;
+import Metaheuristics.OffspringEvaluator;
 import SokoGenerator.GeneratorUtils;
-import SokoGenerator.Tree.Pair;
+import java.util.Random;
 import org.moeaframework.algorithm.single.SelfAdaptiveNormalVariation;
 import org.moeaframework.core.Solution;
 
@@ -18,20 +22,34 @@ import org.moeaframework.core.Solution;
 public class ESMutation extends SelfAdaptiveNormalVariation {
 
     private final double mutationRate;
-    Pair selectedPair;
-    Pair emptySpace;
+    private final Random random;
+    //Mutación que aplicó la última llamada a evolve (para JfrEvents.Operator)
+    private String lastKind;
     
-     public ESMutation(double mutationRate) {
+     public ESMutation(double mutationRate, Random random) {
         this.mutationRate = mutationRate;
+        this.random = random;
     }
      
-     public Solution[] evolve(Solution[] parents) {
+    @Override
+    public Solution[] evolve(Solution[] parents) {
+        JfrEvents.Operator event = new JfrEvents.Operator();
+        event.begin();
+        lastKind = null;
+        long start = System.nanoTime();
+        Solution[] offspring = Evolve(parents);
+        MetricsRegistry.Record(MetricsRegistry.Timer.MUTATION, System.nanoTime() - start);
+        event.Commit("ESMutation", offspring[0] == parents[0] ? null : lastKind, offspring[0]);
+        return offspring;
+    }
+    
+    private Solution[] Evolve(Solution[] parents) {
          
-        if (Metaheuristics.random.nextFloat()> Metaheuristics.P_MUTATION_PROB_ES) return new Solution[]{parents[0]};
+        if (random.nextFloat()> Metaheuristics.P_MUTATION_PROB_ES) return new Solution[]{parents[0]};
          
         // Genera un número aleatorio entre 0 y 99
-        int percent = Metaheuristics.random.nextInt(100);
-        int boxCount = GeneratorUtils.CountCharacters(1, ((GABoard) parents[0].getVariable(0)).GetBoard());
+        int percent = random.nextInt(100);
+        int boxCount = ((GABoard) parents[0].getVariable(0)).GetGenome().Count(BoardGenome.BOX);
         
         if(boxCount > 1){
             if(boxCount == Metaheuristics.P_MAX_BOXES){
@@ -64,153 +82,91 @@ public class ESMutation extends SelfAdaptiveNormalVariation {
     // Simula la función MoveMutation
     public Solution[] MoveMutation(Solution[] parents) {
         //return "MoveMutation";
-        Metaheuristics.R_TOTAL_MUTATION++;
-        Metaheuristics.R_TOTAL_MOVE_MUTATION++;
+        MetricsRegistry.Count(MetricsRegistry.Counter.MUTATION);
+        MetricsRegistry.Count(MetricsRegistry.Counter.MOVE_MUTATION);
+        lastKind = "MoveMutation";
         
         //Clone current board state
         GABoard parent1 = (GABoard) parents[0].getVariable(0);
-        GABoard offspring1 = (GABoard) parent1.copy();  // Define offspring1 as a copy of parent1
-        char[][] cloneBoard = GeneratorUtils.CloneCharArray(offspring1.GetBoard());
+        BoardGenome cloneBoard = parent1.GetGenome().Copy();
         
         //Player : 0 , box: 1 , goal: 2
-        var randomElementIndex = Metaheuristics.random.nextInt(3);
-        int max = GeneratorUtils.CountCharacters(randomElementIndex, cloneBoard);
-        selectedPair = GeneratorUtils.FindCharacterPairIndexBased(cloneBoard, randomElementIndex,
-                Metaheuristics.random.nextInt(max));
+        var randomElementIndex = random.nextInt(3);
+        byte layer = BoardGenome.Layer(randomElementIndex);
+        int max = cloneBoard.Count(layer);
+        int selected = cloneBoard.Find(layer, random.nextInt(max));
         
         //Get a empty space
-        emptySpace = GeneratorUtils.GetEmptySpacePair(cloneBoard);
-        
-        //Replace
-        if(randomElementIndex == 0){
-            if(cloneBoard[selectedPair.i][selectedPair.j] == '+')
-                cloneBoard[selectedPair.i][selectedPair.j] = '.';
-            else
-                cloneBoard[selectedPair.i][selectedPair.j] = ' ';
-                
-            cloneBoard[emptySpace.i][emptySpace.j] = '@';
-        }
-        
+        int emptySpace = layer == BoardGenome.BOX ? GeneratorUtils.GetBoxSpace(cloneBoard, random)
+                                                  : GeneratorUtils.GetEmptySpace(cloneBoard, random);
         
-        else if(randomElementIndex == 1){
-            if(cloneBoard[selectedPair.i][selectedPair.j] == '*')
-                cloneBoard[selectedPair.i][selectedPair.j] = '.';
-            else
-                cloneBoard[selectedPair.i][selectedPair.j] = ' ';
-                
-            cloneBoard[emptySpace.i][emptySpace.j] = '$';
-        }
+        //Sin casilla libre (o solo casillas muertas para una caja) queda el padre
+        if (emptySpace < 0)
+            return new Solution[]{parents[0]};
         
-        else if(randomElementIndex == 2){
-            if(cloneBoard[selectedPair.i][selectedPair.j] == '*')
-                cloneBoard[selectedPair.i][selectedPair.j] = '$';
-            else if(cloneBoard[selectedPair.i][selectedPair.j] == '+')
-                cloneBoard[selectedPair.i][selectedPair.j] = '@';
-            else
-                cloneBoard[selectedPair.i][selectedPair.j] = ' ';
-                
-            cloneBoard[emptySpace.i][emptySpace.j] = '.';
-        }
+        //Replace: la casilla elegida pierde la capa ('+' queda '.', '*' queda '.' o '$')
+        cloneBoard.Remove(selected, layer);
+        cloneBoard.Add(emptySpace, layer);
         
         
-        int boxCount = GeneratorUtils.CountCharacters(1, cloneBoard);
-        if(Metaheuristics.Solve(cloneBoard, false, boxCount) != null){
-            Metaheuristics.R_TOTAL_EFFECTIVE_MUTATION++;
-            offspring1.SetBoard(cloneBoard);
-            
-            Solution solution1 = new Solution(1, 1); // 1 variable, 2 objetivos (ejemplo)
-            solution1.setVariable(0, offspring1);
-            solution1.setObjective(0, Metaheuristics.application.movesHistory.getPushesCount());
-            cloneBoard=null;
-            return new Solution[]{solution1};  
-        }
-
-        cloneBoard=null;
-        return parents;
+        //Se evalua junto al resto de la generación
+        return new Solution[]{OffspringEvaluator.Pending(cloneBoard, parents[0], OffspringEvaluator.Effect.MUTATION)};
     }
 
     public Solution[] AddMutation(Solution[] parents) {
         //return "MoveMutation";
-        Metaheuristics.R_TOTAL_MUTATION++;
-        Metaheuristics.R_TOTAL_ADD_MUTATION++;
+        MetricsRegistry.Count(MetricsRegistry.Counter.MUTATION);
+        MetricsRegistry.Count(MetricsRegistry.Counter.ADD_MUTATION);
+        lastKind = "AddMutation";
         
         //Clone current board state
         GABoard parent1 = (GABoard) parents[0].getVariable(0);
-        GABoard offspring1 = (GABoard) parent1.copy();  // Define offspring1 as a copy of parent1
-        char[][] cloneBoard = GeneratorUtils.CloneCharArray(offspring1.GetBoard());
+        BoardGenome cloneBoard = parent1.GetGenome().Copy();
+        
+        //Hacen falta una casilla para la caja y otra para la meta
+        if (GeneratorUtils.CountBoxSpaces(cloneBoard) == 0 || cloneBoard.CountEmpty() < 2)
+            return new Solution[]{parents[0]};
         
         //Get two empty spaces
-        Pair emptySpace_1;
-        Pair emptySpace_2;
+        int emptySpace_1;
+        int emptySpace_2;
         do{
-        emptySpace_1 = GeneratorUtils.GetEmptySpacePair(cloneBoard);
-        emptySpace_2 = GeneratorUtils.GetEmptySpacePair(cloneBoard);
+        emptySpace_1 = GeneratorUtils.GetBoxSpace(cloneBoard, random);
+        emptySpace_2 = GeneratorUtils.GetEmptySpace(cloneBoard, random);
         
-        }while(emptySpace_1.IsEquals(emptySpace_2));
+        }while(emptySpace_1 == emptySpace_2);
         
-        cloneBoard[emptySpace_1.i][emptySpace_1.j] = '$';
-        cloneBoard[emptySpace_2.i][emptySpace_2.j] = '.';
+        cloneBoard.Add(emptySpace_1, BoardGenome.BOX);
+        cloneBoard.Add(emptySpace_2, BoardGenome.GOAL);
     
-        int boxCount = GeneratorUtils.CountCharacters(1, cloneBoard);
-        if(Metaheuristics.Solve(cloneBoard, false, boxCount) != null){
-            Metaheuristics.R_TOTAL_EFFECTIVE_MUTATION++;
-            offspring1.SetBoard(cloneBoard);
-            
-            Solution solution1 = new Solution(1, 1); // 1 variable, 2 objetivos (ejemplo)
-            solution1.setVariable(0, offspring1);
-            solution1.setObjective(0, Metaheuristics.application.movesHistory.getPushesCount());
-            cloneBoard=null;
-            return new Solution[]{solution1};  
-        }
-        
-        return parents;
+        //Se evalua junto al resto de la generación
+        return new Solution[]{OffspringEvaluator.Pending(cloneBoard, parents[0], OffspringEvaluator.Effect.MUTATION)};
     }
     
      public Solution[] RemoveMutation(Solution[] parents) {
         //return "MoveMutation";
-        Metaheuristics.R_TOTAL_MUTATION++;
-        Metaheuristics.R_TOTAL_REMOVE_MUTATION++;
+        MetricsRegistry.Count(MetricsRegistry.Counter.MUTATION);
+        MetricsRegistry.Count(MetricsRegistry.Counter.REMOVE_MUTATION);
+        lastKind = "RemoveMutation";
         
         //Clone current board state
         GABoard parent1 = (GABoard) parents[0].getVariable(0);
-        GABoard offspring1 = (GABoard) parent1.copy();  // Define offspring1 as a copy of parent1
-        char[][] cloneBoard = GeneratorUtils.CloneCharArray(offspring1.GetBoard());
+        BoardGenome cloneBoard = parent1.GetGenome().Copy();
         
         //Player : 0 , box: 1 , goal: 2
-        int max = GeneratorUtils.CountCharacters(1, cloneBoard);
-        Pair box = GeneratorUtils.FindCharacterPairIndexBased(cloneBoard, 1,
-                Metaheuristics.random.nextInt(max));
-        max = GeneratorUtils.CountCharacters(2, cloneBoard);
-        Pair goal = GeneratorUtils.FindCharacterPairIndexBased(cloneBoard, 2,
-                Metaheuristics.random.nextInt(max));
+        int max = cloneBoard.Count(BoardGenome.BOX);
+        int box = cloneBoard.Find(BoardGenome.BOX, random.nextInt(max));
+        max = cloneBoard.Count(BoardGenome.GOAL);
+        int goal = cloneBoard.Find(BoardGenome.GOAL, random.nextInt(max));
         
         //Remove Box
-        if(cloneBoard[box.i][box.j]=='*')
-            cloneBoard[box.i][box.j] ='.';
-        else
-            cloneBoard[box.i][box.j] =' ';
+        cloneBoard.Remove(box, BoardGenome.BOX);
         
         //Remove goal
-        if(cloneBoard[goal.i][goal.j]=='*')
-            cloneBoard[goal.i][goal.j] ='$';
-        else if(cloneBoard[goal.i][goal.j]=='+')
-            cloneBoard[goal.i][goal.j] ='@';
-        else
-            cloneBoard[goal.i][goal.j] =' ';
-        
-        int boxCount = GeneratorUtils.CountCharacters(1, cloneBoard);
-        if(Metaheuristics.Solve(cloneBoard, false, boxCount) != null){
-            Metaheuristics.R_TOTAL_EFFECTIVE_MUTATION++;
-            offspring1.SetBoard(cloneBoard);
-            
-            Solution solution1 = new Solution(1, 1); // 1 variable, 2 objetivos (ejemplo)
-            solution1.setVariable(0, offspring1);
-            solution1.setObjective(0, Metaheuristics.application.movesHistory.getPushesCount());
-            cloneBoard=null;
-            return new Solution[]{solution1};  
-        }
+        cloneBoard.Remove(goal, BoardGenome.GOAL);
         
-        return parents;
+        //Se evalua junto al resto de la generación
+        return new Solution[]{OffspringEvaluator.Pending(cloneBoard, parents[0], OffspringEvaluator.Effect.MUTATION)};
     }
 
 }
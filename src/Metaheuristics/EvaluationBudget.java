@@ -0,0 +1,45 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metaheuristics;
+
+/**
+ * Parte de MAXEVALUATIONS que puede gastar un hilo (por ejemplo una isla de
+ * GAIslands). Se asigna con Metaheuristics.SetThreadContext.
+ *
+ * @author Hans
+ */
+public class EvaluationBudget {
+    private final int maxEvaluations;
+    private int evaluations;
+    private long solverNanos;
+
+    public EvaluationBudget(int maxEvaluations) {
+        this.maxEvaluations = maxEvaluations;
+    }
+
+    synchronized void Count() {
+        evaluations++;
+    }
+
+    synchronized void AddSolverTime(long nanos) {
+        solverNanos += nanos;
+    }
+
+    public synchronized long GetSolverNanos() {
+        return solverNanos;
+    }
+
+    public synchronized int GetEvaluations() {
+        return evaluations;
+    }
+
+    public synchronized int GetRemaining() {
+        return Math.max(0, maxEvaluations - evaluations);
+    }
+
+    public synchronized boolean IsExhausted() {
+        return evaluations >= maxEvaluations;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metaheuristics;
+
+/**
+ * Resultado de evaluar un tablero con el solver de JSoko.
+ * 
+ * Si el solver se detuvo por agotar su presupuesto (nodos, tiempo o
+ * posiciones guardadas) budgetExceeded es true y solved es false, así los
+ * algoritmos lo penalizan igual que a un tablero sin solución. Si el
+ * pre-screen lo descartó antes de llamar al solver, screened es la regla que
+ * lo descartó (ver BoardScreen) y el tablero no cuenta como evaluación.
+ *
+ * @author Hans
+ */
+public class EvaluationResult {
+    public static final EvaluationResult UNSOLVED = new EvaluationResult(false, 0, 0, 0);
+
+    public final boolean solved;
+    public final int pushes;
+    public final int moves;
+    public final int nodes;
+    public final boolean budgetExceeded;
+    public final BoardScreen.Rule screened;
+
+    public EvaluationResult(boolean solved, int pushes, int moves, int nodes) {
+        this(solved, pushes, moves, nodes, false, null);
+    }
+
+    private EvaluationResult(boolean solved, int pushes, int moves, int nodes, boolean budgetExceeded,
+            BoardScreen.Rule screened) {
+        this.solved = solved;
+        this.pushes = pushes;
+        this.moves = moves;
+        this.nodes = nodes;
+        this.budgetExceeded = budgetExceeded;
+        this.screened = screened;
+    }
+
+    public static EvaluationResult BudgetExceeded(int nodes) {
+        return new EvaluationResult(false, 0, 0, nodes, true, null);
+    }
+
+    public static EvaluationResult Screened(BoardScreen.Rule rule) {
+        return new EvaluationResult(false, 0, 0, 0, false, rule);
+    }
+
+    @Override
+    public String toString() {
+        return "solved=" + solved + ", pushes=" + pushes + ", moves=" + moves + ", nodes=" + nodes
+                + (budgetExceeded ? ", budget exceeded" : "") + (screened != null ? ", screened " + screened : "");
+    }
+}
@@ -0,0 +1,391 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metaheuristics;
+
+import Metaheuristics.DE.DEGenerator;
+import Metaheuristics.ES.ESGenerator;
+import Metaheuristics.GA.GAGenerator;
+import Metaheuristics.SA.SAGenerator;
+import Metaheuristics.SA.SATempering;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.Field;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Corre una grilla de experimentos sin GUI:
+ * algoritmos x tableros (I_BOARD_ID) x hiperparámetros x semillas.
+ *
+ * Toda la configuración de una corrida está en los static de Metaheuristics,
+ * así que cada corrida es una JVM aparte y se corren a lo más -w a la vez.
+ * Cada corrida que termina agrega una fila a results.csv, su serie por
+ * generación queda en series/ y su salida en logs/. Las corridas que ya
+ * están en results.csv no se vuelven a correr, así una campaña cortada se
+ * puede seguir con el mismo comando.
+ *
+ * Uso:
+ * <pre>
+ * java -cp ... Metaheuristics.ExperimentRunner -a GA,DE,ES,SA,PT -b 0,1,2 -s 1..10
+ *      -p P_POPULATION_COUNT=15,30 -p P_MUTATION_PROB_GA=0.1,0.2
+ *      -w 4 -t 60 -o Tests/Experiments -j -Xmx2g
+ * </pre>
+ * -p acepta cualquier static de Metaheuristics de tipo primitivo, String o
+ * enum; -t es el límite por corrida en minutos (0 = sin límite).
+ *
+ * @author Hans
+ */
+public class ExperimentRunner {
+
+    private static final String RESULT = "RESULT,";
+
+    private final List<String> algorithms = new ArrayList<>();
+    private final List<Integer> boards = new ArrayList<>();
+    private final List<Long> seeds = new ArrayList<>();
+    private final LinkedHashMap<String, List<String>> parameters = new LinkedHashMap<>();
+    private final List<String> jvmArgs = new ArrayList<>();
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private long timeoutMinutes = 0;
+    private File outDir = new File("Tests/Experiments");
+
+    private PrintWriter results;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("run")) {
+            RunSingle(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        ExperimentRunner runner = new ExperimentRunner();
+        runner.ParseArgs(args);
+        runner.Start();
+    }
+
+    private void ParseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            if (value == null)
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            switch (args[i]) {
+                case "-a":
+                    for (String algorithm : value.split(",")) {
+                        if (AlgorithmName(algorithm) == null)
+                            throw new IllegalArgumentException("Unknown algorithm " + algorithm);
+                        algorithms.add(algorithm);
+                    }
+                    break;
+                case "-b":
+                    for (String board : value.split(","))
+                        boards.add(Integer.parseInt(board));
+                    break;
+                case "-s":
+                    for (String seed : value.split(",")) {
+                        int range = seed.indexOf("..");
+                        if (range < 0) {
+                            seeds.add(Long.parseLong(seed));
+                        } else {
+                            long last = Long.parseLong(seed.substring(range + 2));
+                            for (long s = Long.parseLong(seed.substring(0, range)); s <= last; s++)
+                                seeds.add(s);
+                        }
+                    }
+                    break;
+                case "-p":
+                    int equals = value.indexOf('=');
+                    if (equals < 0)
+                        throw new IllegalArgumentException("Expected NAME=v1,v2 in " + value);
+                    String name = value.substring(0, equals);
+                    List<String> values = Arrays.asList(value.substring(equals + 1).split(","));
+                    for (String v : values)
+                        SetParameter(name, v); //Falla aquí y no a mitad de la campaña
+                    parameters.put(name, values);
+                    break;
+                case "-w":
+                    workers = Math.max(1, Integer.parseInt(value));
+                    break;
+                case "-t":
+                    timeoutMinutes = Long.parseLong(value);
+                    break;
+                case "-o":
+                    outDir = new File(value);
+                    break;
+                case "-j":
+                    jvmArgs.add(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+            i++;
+        }
+
+        if (algorithms.isEmpty())
+            algorithms.add("GA");
+        if (boards.isEmpty())
+            boards.add(Metaheuristics.I_BOARD_ID);
+        if (seeds.isEmpty())
+            seeds.add(1L);
+    }
+
+    private void Start() throws IOException, InterruptedException {
+        new File(outDir, "series").mkdirs();
+        new File(outDir, "logs").mkdirs();
+
+        File resultsFile = new File(outDir, "results.csv");
+        HashSet<String> done = ReadDone(resultsFile);
+        boolean header = !resultsFile.exists() || resultsFile.length() == 0;
+        results = new PrintWriter(new FileWriter(resultsFile, true));
+        if (header) {
+            StringBuilder sb = new StringBuilder("Run,Algorithm,Board,Seed");
+            for (String name : parameters.keySet())
+                sb.append(',').append(name);
+            sb.append(",Evaluations,Time,Best Fitness,Best Board");
+            results.println(sb);
+            results.flush();
+        }
+
+        //La grilla completa, sin las corridas que ya están en results.csv
+        ArrayList<String[]> runs = new ArrayList<>();
+        for (String algorithm : algorithms)
+            for (int board : boards)
+                for (Map<String, String> combination : Combinations())
+                    for (long seed : seeds) {
+                        String[] run = RunArgs(algorithm, board, seed, combination);
+                        if (!done.contains(RunKey(run)))
+                            runs.add(run);
+                    }
+
+        int total = runs.size();
+        System.out.println("ExperimentRunner: " + total + " runs, " + done.size() + " already done, "
+                + workers + " workers");
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        for (String[] run : runs)
+            pool.execute(() -> Execute(run));
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        results.close();
+    }
+
+    //Todas las combinaciones de los valores de -p, en el orden dado
+    private List<Map<String, String>> Combinations() {
+        List<Map<String, String>> combinations = new ArrayList<>();
+        combinations.add(new LinkedHashMap<>());
+        for (Map.Entry<String, List<String>> parameter : parameters.entrySet()) {
+            List<Map<String, String>> next = new ArrayList<>();
+            for (Map<String, String> combination : combinations)
+                for (String value : parameter.getValue()) {
+                    Map<String, String> extended = new LinkedHashMap<>(combination);
+                    extended.put(parameter.getKey(), value);
+                    next.add(extended);
+                }
+            combinations = next;
+        }
+        return combinations;
+    }
+
+    //algoritmo, tablero, semilla, NAME=valor...
+    private static String[] RunArgs(String algorithm, int board, long seed, Map<String, String> combination) {
+        ArrayList<String> run = new ArrayList<>();
+        run.add(algorithm);
+        run.add(String.valueOf(board));
+        run.add(String.valueOf(seed));
+        for (Map.Entry<String, String> parameter : combination.entrySet())
+            run.add(parameter.getKey() + "=" + parameter.getValue());
+        return run.toArray(new String[0]);
+    }
+
+    private static String RunKey(String[] run) {
+        return String.join("/", run);
+    }
+
+    private static String RunFileName(String[] run) {
+        return RunKey(run).replaceAll("[^A-Za-z0-9_.=-]", "_");
+    }
+
+    private static HashSet<String> ReadDone(File resultsFile) throws IOException {
+        HashSet<String> done = new HashSet<>();
+        if (!resultsFile.exists())
+            return done;
+        try (BufferedReader reader = new BufferedReader(new FileReader(resultsFile))) {
+            reader.readLine();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                int comma = line.indexOf(',');
+                if (comma > 0)
+                    done.add(line.substring(0, comma));
+            }
+        }
+        return done;
+    }
+
+    private void Execute(String[] run) {
+        String fileName = RunFileName(run);
+        File log = new File(outDir, "logs/" + fileName + ".log");
+
+        ArrayList<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ExperimentRunner.class.getName());
+        command.add("run");
+        command.add(new File(outDir, "series/" + fileName).getPath());
+        command.addAll(Arrays.asList(run));
+
+        try {
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(log)
+                    .start();
+            if (timeoutMinutes <= 0) {
+                process.waitFor();
+            } else if (!process.waitFor(timeoutMinutes, TimeUnit.MINUTES)) {
+                process.destroyForcibly();
+                System.out.println("TIMEOUT " + RunKey(run));
+                return;
+            }
+
+            String result = ReadResult(log);
+            if (process.exitValue() != 0 || result == null) {
+                System.out.println("FAILED " + RunKey(run) + " (see " + log + ")");
+                return;
+            }
+
+            //Una fila por corrida, escrita apenas termina
+            StringBuilder sb = new StringBuilder(RunKey(run));
+            sb.append(',').append(AlgorithmName(run[0]));
+            sb.append(',').append(run[1]).append(',').append(run[2]);
+            for (int i = 3; i < run.length; i++)
+                sb.append(',').append(run[i].substring(run[i].indexOf('=') + 1));
+            sb.append(',').append(result);
+            synchronized (this) {
+                results.println(sb);
+                results.flush();
+            }
+            System.out.println("DONE " + RunKey(run));
+        } catch (IOException e) {
+            System.out.println("FAILED " + RunKey(run) + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String ReadResult(File log) throws IOException {
+        String result = null;
+        try (BufferedReader reader = new BufferedReader(new FileReader(log))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.startsWith(RESULT))
+                    result = line.substring(RESULT.length());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Una corrida, en su propia JVM: series, algoritmo, tablero, semilla y
+     * NAME=valor por cada hiperparámetro.
+     */
+    private static void RunSingle(String[] args) {
+        String series = args[0];
+        String algorithm = args[1];
+        int board = Integer.parseInt(args[2]);
+        long seed = Long.parseLong(args[3]);
+
+        Metaheuristics.P_SEED = seed;
+        Metaheuristics.I_BOARD_ID = board;
+        Metaheuristics.UpdateBoardBase();
+        Metaheuristics.I_ALG_NAME = AlgorithmName(algorithm);
+        Metaheuristics.P_RESULTS_NAME = series;
+        //Ya hay -w corridas en paralelo, salvo que la grilla diga otra cosa
+        Metaheuristics.P_THREADS = 1;
+        for (int i = 4; i < args.length; i++) {
+            int equals = args[i].indexOf('=');
+            SetParameter(args[i].substring(0, equals), args[i].substring(equals + 1));
+        }
+
+        switch (algorithm) {
+            case "GA":
+                new GAGenerator().Start();
+                break;
+            case "DE":
+                new DEGenerator().Start();
+                break;
+            case "ES":
+                new ESGenerator().Start();
+                break;
+            case "SA":
+                new SAGenerator(Metaheuristics.P_INITIAL_TEMPERATURE, Metaheuristics.P_COOLING_RATE).Start();
+                break;
+            case "PT":
+                new SATempering().Start();
+                break;
+        }
+
+        StringBuilder bestBoard = new StringBuilder();
+        for (char[] row : Metaheuristics.BESTBOARD) {
+            if (bestBoard.length() > 0)
+                bestBoard.append('/');
+            bestBoard.append(row);
+        }
+        System.out.println(RESULT + Metaheuristics.EVALUATECOUNT + "," + Metaheuristics.TOTALTIME
+                + "," + Metaheuristics.BESTFITNESS + "," + bestBoard);
+        System.exit(0);
+    }
+
+    //Mismos nombres que en el menú de GUI
+    private static String AlgorithmName(String algorithm) {
+        switch (algorithm) {
+            case "GA":
+                return "Genetic Algorithm";
+            case "ES":
+                return "Particle Swarm Optimization";
+            case "DE":
+                return "Differential Evolution";
+            case "SA":
+                return "Simulated Annealing";
+            case "PT":
+                return "Simulated Annealing (replicas)";
+            default:
+                return null;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void SetParameter(String name, String value) {
+        try {
+            Field field = Metaheuristics.class.getField(name);
+            Class<?> type = field.getType();
+            if (type == int.class)
+                field.setInt(null, Integer.parseInt(value));
+            else if (type == long.class)
+                field.setLong(null, Long.parseLong(value));
+            else if (type == float.class)
+                field.setFloat(null, Float.parseFloat(value));
+            else if (type == double.class)
+                field.setDouble(null, Double.parseDouble(value));
+            else if (type == boolean.class)
+                field.setBoolean(null, Boolean.parseBoolean(value));
+            else if (type == String.class)
+                field.set(null, value);
+            else if (type.isEnum())
+                field.set(null, Enum.valueOf((Class<? extends Enum>) type, value));
+            else
+                throw new IllegalArgumentException("Unsupported parameter type for " + name);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalArgumentException("Unknown parameter " + name, e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metaheuristics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.BiFunction;
+
+/**
+ * Cache de fitness delante de Metaheuristics.Solve.
+ *
+ * La clave es la forma canónica del tablero: la menor de sus 8 rotaciones y
+ * reflexiones (DuplicateCheck.Transformations), así un tablero simétrico a
+ * uno ya resuelto tampoco gasta una evaluación (ver BoardGenome.Canonical). En un fallo se resuelve la
+ * forma canónica y no el tablero recibido, así el resultado guardado no
+ * depende de cuál de las variantes llegó primero. Se descarta la entrada
+ * usada hace más tiempo (LRU).
+ *
+ * @author Hans
+ */
+public class FitnessCache {
+    private final int capacity;
+    private final LinkedHashMap<Key, FutureTask<EvaluationResult>> entries;
+    private long hits;
+    private long misses;
+
+    public FitnessCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Key, FutureTask<EvaluationResult>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, FutureTask<EvaluationResult>> eldest) {
+                return size() > FitnessCache.this.capacity;
+            }
+        };
+    }
+
+    public EvaluationResult Get(BoardGenome board, boolean optimal,
+            BiFunction<BoardGenome, Boolean, EvaluationResult> solve) {
+
+        //Si otro hilo ya está resolviendo el mismo tablero run() no hace nada y se espera su resultado
+        FutureTask<EvaluationResult> task = Task(board, optimal, solve);
+        task.run();
+        return Await(task);
+    }
+
+    /**
+     * Devuelve la tarea que resuelve el tablero, agregándola al cache si no
+     * estaba (y contando el acierto o el fallo). Quien la recibe debe llamar
+     * a run(), que no hace nada si ya corrió o está corriendo, y luego Await.
+     */
+    public FutureTask<EvaluationResult> Task(BoardGenome board, boolean optimal,
+            BiFunction<BoardGenome, Boolean, EvaluationResult> solve) {
+
+        if (capacity <= 0)
+            return new FutureTask<>(() -> solve.apply(board, optimal));
+
+        Key key = new Key(board.Canonical(), optimal);
+        synchronized (this) {
+            FutureTask<EvaluationResult> task = entries.get(key);
+            if (task == null) {
+                task = new FutureTask<>(() -> solve.apply(key.board, optimal));
+                entries.put(key, task);
+                misses++;
+            } else {
+                hits++;
+            }
+            return task;
+        }
+    }
+
+    public EvaluationResult Await(FutureTask<EvaluationResult> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            synchronized (this) {
+                entries.values().remove(task);
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Devuelve el resultado si ya está calculado, sin resolver nada. Un
+     * resultado encontrado cuenta como acierto; si no está se devuelve null y
+     * no se cuenta el fallo (lo contará Get).
+     */
+    public EvaluationResult Peek(BoardGenome board, boolean optimal) {
+        if (capacity <= 0)
+            return null;
+
+        FutureTask<EvaluationResult> task;
+        synchronized (this) {
+            task = entries.get(new Key(board.Canonical(), optimal));
+            if (task == null || !task.isDone())
+                return null;
+            hits++;
+        }
+
+        try {
+            return task.get();
+        } catch (InterruptedException | ExecutionException e) {
+            return null;
+        }
+    }
+
+    //true si el resultado ya está calculado; no cuenta aciertos ni fallos
+    public boolean Contains(BoardGenome board, boolean optimal) {
+        if (capacity <= 0)
+            return false;
+
+        Key key = new Key(board.Canonical(), optimal);
+        synchronized (this) {
+            FutureTask<EvaluationResult> task = entries.get(key);
+            return task != null && task.isDone();
+        }
+    }
+
+    public synchronized long GetHits() {
+        return hits;
+    }
+
+    public synchronized long GetMisses() {
+        return misses;
+    }
+
+    public synchronized void Clear() {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    //Forma canónica del tablero y solver con que se resuelve
+    private static final class Key {
+        final BoardGenome board;
+        final boolean optimal;
+
+        Key(BoardGenome board, boolean optimal) {
+            this.board = board;
+            this.optimal = optimal;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key))
+                return false;
+            Key key = (Key) other;
+            return optimal == key.optimal && board.equals(key.board);
+        }
+
+        @Override
+        public int hashCode() {
+            return board.hashCode() * 2 + (optimal ? 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metaheuristics;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.Arrays;
+
+/**
+ * Resultados del solver guardados en disco, compartidos entre corridas y
+ * entre JVMs que usen el mismo archivo.
+ *
+ * El archivo es una tabla hash de registros de tamaño fijo (direccionamiento
+ * abierto, sondeo lineal) mapeada en memoria. La clave es la forma canónica
+ * del tablero (ver BoardGenome.Canonical) con una celda por nibble. Cada
+ * lectura toma un lock compartido sobre el archivo y cada escritura uno
+ * exclusivo, así varios procesos pueden usarlo a la vez. Cuando la tabla se
+ * llena ya no se agregan registros.
+ *
+ * @author Hans
+ */
+public class FitnessStore {
+    private static final int MAGIC = 0x534F4B46; //"SOKF"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 160;
+    private static final int KEY_BYTES = 128;
+
+    //Registro
+    private static final int USED = 0;
+    private static final int SOLVED = 1;
+    private static final int SOLVER = 2;
+    private static final int HEIGHT = 3;
+    private static final int WIDTH = 4;
+    private static final int PUSHES = 8;
+    private static final int MOVES = 12;
+    private static final int NODES = 16;
+    private static final int HASH = 24;
+    private static final int KEY = 32;
+
+    public static final byte SOLVER_ANY_SOLUTION = 0;
+    public static final byte SOLVER_ASTAR_PUSHES_MOVES = 1;
+
+    private static final String CELLS = "# @+$*.";
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final byte[] key = new byte[KEY_BYTES];
+    private long hits;
+    private long misses;
+
+    private FitnessStore(FileChannel channel, MappedByteBuffer buffer, int capacity) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Abre el archivo o lo crea con espacio para <code>capacity</code>
+     * registros. Si ya existe se usa la capacidad con que fue creado.
+     */
+    public static FitnessStore Open(String path, int capacity) throws IOException {
+        FileChannel channel = new RandomAccessFile(path, "rw").getChannel();
+        FileLock lock = null;
+        try {
+            lock = channel.lock();
+            if (channel.size() == 0) {
+                long size = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, capacity);
+                buffer.putInt(12, RECORD_SIZE);
+                return new FitnessStore(channel, buffer, capacity);
+            }
+
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(12) != RECORD_SIZE) {
+                throw new IOException("Not a fitness store: " + path);
+            }
+            int storedCapacity = header.getInt(8);
+            long size = HEADER_SIZE + (long) storedCapacity * RECORD_SIZE;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new FitnessStore(channel, buffer, storedCapacity);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        } finally {
+            //Al cerrar el canal el lock ya se soltó
+            if (lock != null && lock.isValid())
+                lock.release();
+        }
+    }
+
+    /**
+     * Devuelve el resultado guardado para el tablero, o null si no está.
+     */
+    public synchronized EvaluationResult Get(BoardGenome board, boolean optimal) throws IOException {
+        BoardGenome canonical = board.Canonical();
+        if (!Encode(canonical))
+            return null;
+        long hash = Hash(canonical, optimal);
+
+        FileLock lock = channel.lock(0, Long.MAX_VALUE, true);
+        try {
+            int slot = Find(hash, optimal, canonical.GetHeight(), canonical.GetWidth());
+            if (slot < 0 || buffer.get(Offset(slot) + USED) == 0) {
+                misses++;
+                return null;
+            }
+            hits++;
+            int offset = Offset(slot);
+            return new EvaluationResult(buffer.get(offset + SOLVED) != 0, buffer.getInt(offset + PUSHES),
+                    buffer.getInt(offset + MOVES), buffer.getInt(offset + NODES));
+        } finally {
+            lock.release();
+        }
+    }
+
+    public synchronized void Put(BoardGenome board, boolean optimal, EvaluationResult result) throws IOException {
+        BoardGenome canonical = board.Canonical();
+        if (!Encode(canonical))
+            return;
+        long hash = Hash(canonical, optimal);
+        int height = canonical.GetHeight();
+        int width = canonical.GetWidth();
+
+        FileLock lock = channel.lock();
+        try {
+            int slot = Find(hash, optimal, height, width);
+            if (slot < 0 || buffer.get(Offset(slot) + USED) != 0)
+                return;
+
+            //El registro se marca como usado al final
+            int offset = Offset(slot);
+            buffer.put(offset + SOLVED, (byte) (result.solved ? 1 : 0));
+            buffer.put(offset + SOLVER, optimal ? SOLVER_ASTAR_PUSHES_MOVES : SOLVER_ANY_SOLUTION);
+            buffer.put(offset + HEIGHT, (byte) height);
+            buffer.put(offset + WIDTH, (byte) width);
+            buffer.putInt(offset + PUSHES, result.pushes);
+            buffer.putInt(offset + MOVES, result.moves);
+            buffer.putInt(offset + NODES, result.nodes);
+            buffer.putLong(offset + HASH, hash);
+            for (int i = 0; i < KEY_BYTES; i++)
+                buffer.put(offset + KEY + i, key[i]);
+            buffer.put(offset + USED, (byte) 1);
+        } finally {
+            lock.release();
+        }
+    }
+
+    public synchronized long GetHits() {
+        return hits;
+    }
+
+    public synchronized long GetMisses() {
+        return misses;
+    }
+
+    public synchronized void Close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    //Busca el registro de la clave o el primer registro libre; -1 si la tabla está llena
+    private int Find(long hash, boolean optimal, int height, int width) {
+        byte solver = optimal ? SOLVER_ASTAR_PUSHES_MOVES : SOLVER_ANY_SOLUTION;
+        int slot = (int) Long.remainderUnsigned(hash, capacity);
+        for (int i = 0; i < capacity; i++) {
+            int offset = Offset(slot);
+            if (buffer.get(offset + USED) == 0)
+                return slot;
+            if (buffer.getLong(offset + HASH) == hash
+                    && buffer.get(offset + SOLVER) == solver
+                    && buffer.get(offset + HEIGHT) == height
+                    && buffer.get(offset + WIDTH) == width
+                    && SameKey(offset)) {
+                return slot;
+            }
+            slot = (slot + 1) % capacity;
+        }
+        return -1;
+    }
+
+    private boolean SameKey(int offset) {
+        for (int i = 0; i < KEY_BYTES; i++) {
+            if (buffer.get(offset + KEY + i) != key[i])
+                return false;
+        }
+        return true;
+    }
+
+    private static int Offset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    //Empaqueta las celdas del tablero canónico en key; false si no entra en un registro
+    private boolean Encode(BoardGenome canonical) {
+        Arrays.fill(key, (byte) 0);
+        if (canonical.GetSize() > KEY_BYTES * 2)
+            return false;
+        for (int cell = 0; cell < canonical.GetSize(); cell++) {
+            int code = CELLS.indexOf(BoardGenome.Char(canonical.Get(cell))) + 1;
+            if (code == 0)
+                return false;
+            key[cell / 2] |= (byte) (cell % 2 == 0 ? code : code << 4);
+        }
+        return canonical.GetHeight() < 128 && canonical.GetWidth() < 128;
+    }
+
+    //FNV-1a de 64 bits del texto del tablero: 'O' o 'A' y cada fila precedida por '\n'
+    private static long Hash(BoardGenome canonical, boolean optimal) {
+        long hash = 0xcbf29ce484222325L;
+        hash ^= optimal ? 'O' : 'A';
+        hash *= 0x100000001b3L;
+        for (int i = 0; i < canonical.GetHeight(); i++) {
+            hash ^= '\n';
+            hash *= 0x100000001b3L;
+            for (int j = 0; j < canonical.GetWidth(); j++) {
+                hash ^= canonical.GetChar(i, j);
+                hash *= 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+}
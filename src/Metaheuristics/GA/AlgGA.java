@@ -16,16 +16,23 @@
  * along with the MOEA Framework.  If not, see <http://www.gnu.org/licenses/>.
  */
 package Metaheuristics.GA;
+import Metaheuristics.JfrEvents;
 import Metaheuristics.Metaheuristics;
+import Metaheuristics.OffspringEvaluator;
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.Random;
 import org.moeaframework.algorithm.single.AggregateObjectiveComparator;
 import org.moeaframework.algorithm.single.LinearDominanceComparator;
 import org.moeaframework.algorithm.single.SingleObjectiveEvolutionaryAlgorithm;
 
 import org.moeaframework.core.Initialization;
 import org.moeaframework.core.NondominatedPopulation;
+import org.moeaframework.core.PRNG;
 import org.moeaframework.core.Population;
 import org.moeaframework.core.Problem;
 import org.moeaframework.core.Settings;
@@ -56,6 +63,16 @@ public class AlgGA extends SingleObjectiveEvolutionaryAlgorithm {
 	 * The solution with the best fitness score.
 	 */
 	private Solution eliteSolution;
+
+	/**
+	 * The random stream used by the selection operator.
+	 */
+	private final Random random;
+	
+	/**
+	 * The number of generations run so far, reported by the flight recorder events.
+	 */
+	private int generation;
 	
 	/**
 	 * Constructs a new instance of the genetic algorithm (GA) with default settings.
@@ -67,7 +84,8 @@ public class AlgGA extends SingleObjectiveEvolutionaryAlgorithm {
 				Settings.DEFAULT_POPULATION_SIZE,
 				new LinearDominanceComparator(),
 				new RandomInitialization(problem),
-				OperatorFactory.getInstance().getVariation(problem));
+				OperatorFactory.getInstance().getVariation(problem),
+				new Random(PRNG.nextLong()));
 	}
 	
 	/**
@@ -78,10 +96,31 @@ public class AlgGA extends SingleObjectiveEvolutionaryAlgorithm {
 	 * @param comparator the aggregate objective comparator
 	 * @param initialization the initialization method
 	 * @param variation the variation operator
+	 * @param random the random stream used by the selection operator
 	 */
 	public AlgGA(Problem problem, int initialPopulationSize, AggregateObjectiveComparator comparator,
-			Initialization initialization, Variation variation) {
+			Initialization initialization, Variation variation, Random random) {
 		super(problem, initialPopulationSize, new Population(), null, comparator, initialization, variation);
+		this.random = random;
+	}
+
+	/**
+	 * Runs one generation and emits a {@link JfrEvents.Generation} event when a flight recording is active.
+	 */
+	@Override
+	public void step() {
+		JfrEvents.Generation event = new JfrEvents.Generation();
+		event.begin();
+		super.step();
+		event.end();
+		if (event.shouldCommit()) {
+			event.generation = generation;
+			event.population = getPopulation().size();
+			event.bestFitness = eliteSolution.getObjective(0);
+			event.evaluations = Metaheuristics.GetEvaluations();
+			event.commit();
+		}
+		generation++;
 	}
 
 	@Override
@@ -99,18 +138,21 @@ public class AlgGA extends SingleObjectiveEvolutionaryAlgorithm {
 		Population offspring = new Population();
 		int populationSize = population.size();
 
-		while (offspring.size() < populationSize) {
-			Solution[] parents = selection.select(variation.getArity(), population);
-			Solution[] children = variation.evolve(parents);
-                        
-			offspring.addAll(children);
-                        if(Metaheuristics.STOP){
-                            System.out.println("EXIT!!!!!!");
-                            break;
-                        }  
+		//Generate the whole generation first, then evaluate it in parallel
+		ArrayList<Solution> candidates = new ArrayList<>();
+		while (candidates.size() < populationSize) {
+			Solution[] parents = select(variation.getArity(), population);
+			candidates.addAll(Arrays.asList(variation.evolve(parents)));
 		}
 
-		//evaluateAll(offspring);
+		for (Solution child : OffspringEvaluator.EvaluateAll(candidates)) {
+			if (child != null) {
+				offspring.add(child);
+			}
+		}
+                if(Metaheuristics.IsStopped()){
+                    System.out.println("EXIT!!!!!!");
+                }
                 
 
 		population.clear();
@@ -123,6 +165,53 @@ public class AlgGA extends SingleObjectiveEvolutionaryAlgorithm {
                 
 	}
 	
+	/**
+	 * Tournament selection drawing from this algorithm's own random stream instead of the shared PRNG, so each
+	 * island of {@link GAIslands} selects with its own stream.
+	 * 
+	 * @param arity the number of solutions to select
+	 * @param population the population from which the solutions are selected
+	 * @return the selected solutions
+	 */
+	private Solution[] select(int arity, Population population) {
+		Solution[] result = new Solution[arity];
+
+		for (int i = 0; i < arity; i++) {
+			Solution winner = population.get(random.nextInt(population.size()));
+
+			for (int j = 1; j < selection.getSize(); j++) {
+				Solution candidate = population.get(random.nextInt(population.size()));
+
+				if (((Comparator<Solution>)comparator).compare(winner, candidate) > 0) {
+					winner = candidate;
+				}
+			}
+
+			result[i] = winner;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Adds already evaluated solutions coming from another population, replacing the worst solutions of this one.
+	 * 
+	 * @param migrants the solutions to add
+	 */
+	public void acceptMigrants(Collection<Solution> migrants) {
+		if (migrants.isEmpty()) {
+			return;
+		}
+
+		Population population = getPopulation();
+		int populationSize = population.size();
+
+		population.addAll(migrants);
+		population.truncate(populationSize, comparator);
+
+		updateEliteSolution();
+	}
+	
 	/**
 	 * Update the elite solution.
 	 */
@@ -1,41 +1,39 @@
 package Metaheuristics.GA;
 
+import Metaheuristics.BoardGenome;
+import Metaheuristics.EvaluationResult;
 import Metaheuristics.Metaheuristics;
 import SokoGenerator.GeneratorUtils;
-import SokoGenerator.Tree.Pair;
+import SokoGenerator.ReverseGenerator;
 import org.moeaframework.core.Variable;
-import java.util.Arrays;
+import java.util.Random;
 
 public class GABoard implements Variable {
-    private char[][] board;
+    private BoardGenome genome;
     
-    public GABoard(char[][] board) {
-        this.board = board;
+    public GABoard(BoardGenome genome) {
+        this.genome = genome;
     }
 
-    public char[][] GetBoard() {
-        return board;
+    public BoardGenome GetGenome() {
+        return genome;
     }
 
-    public void SetBoard(char[][] newBoard) {
-        this.board = newBoard;
+    public void SetGenome(BoardGenome newGenome) {
+        this.genome = newGenome;
+    }
+
+    //Copia del tablero como char[][], para mostrarlo o guardarlo
+    public char[][] GetBoard() {
+        return genome.ToChars();
     }
 
     
     @Override
     public Variable copy() {
         
-        char[][] cloneBoard = new char[board.length][board[0].length];
-        
-        for (int i = 0; i < board.length; i++) {
-            cloneBoard[i] = Arrays.copyOf(this.board[i], board[0].length);
-        }
-        
-        GABoard copy = new GABoard(cloneBoard);
-        
-        return copy;
-        
-        //return new GABoard(GeneratorUtils.CloneCharArray(board));
+        //O(1), el arreglo se copia solo si alguna de las dos copias cambia
+        return new GABoard(genome.Copy());
     }
     
     @Override
@@ -56,43 +54,55 @@ public class GABoard implements Variable {
     
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        for (char[] row : board) {
-            sb.append(Arrays.toString(row)).append("\n");
-        }
-        return sb.toString();
+        return genome.toString();
     }
 
     int Initialize() {
         //System.out.println("--->Initialize");
 
-        char[][] newBoard = null;
-        de.sokoban_online.jsoko.leveldata.solutions.Solution jsokoSolution = null;
+        BoardGenome newBoard = null;
+        EvaluationResult result;
         
-        Pair pair;
         do{
             //System.out.println("->Probar");
-            newBoard = GeneratorUtils.CloneCharArray(board);
-
-            pair = GeneratorUtils.GetEmptySpacePair(newBoard);
-            newBoard[pair.i][pair.j] = '$';
+            newBoard = InitialBoard(genome, Metaheuristics.random);
 
-            pair = GeneratorUtils.GetEmptySpacePair(newBoard);
-            newBoard[pair.i][pair.j] = '.';
-
-            pair = GeneratorUtils.GetEmptySpacePair(newBoard);
-            newBoard[pair.i][pair.j] = '@';
-
-            jsokoSolution = Metaheuristics.Solve(newBoard, false, 1); 
+            result = Metaheuristics.Solve(newBoard, false); 
             
-        }while(jsokoSolution== null);
+        }while(!result.solved);
 
-        board = GeneratorUtils.CloneCharArray(newBoard);
+        genome = newBoard;
+        
+        return result.pushes;
         
-        newBoard = null;
-        jsokoSolution = null;
+    }
+    
+    /**
+     * Tablero para la población inicial: con P_REVERSE_INIT se arma tirando
+     * la caja desde su meta y tiene solución por construcción, si no es
+     * RandomBoard.
+     */
+    public static BoardGenome InitialBoard(BoardGenome baseBoard, Random random) {
+        if (!Metaheuristics.P_REVERSE_INIT)
+            return RandomBoard(baseBoard, random);
+        
+        BoardGenome newBoard;
+        do{
+            newBoard = ReverseGenerator.Generate(baseBoard, 1, Metaheuristics.P_REVERSE_PULLS, random);
+        }while(newBoard == null);
+        return newBoard;
+    }
+    
+    //Copia del tablero base con una caja, una meta y el jugador en lugares vacios al azar
+    public static BoardGenome RandomBoard(BoardGenome baseBoard, Random random) {
+        BoardGenome newBoard = baseBoard.Copy();
+        if (GeneratorUtils.CountBoxSpaces(newBoard) == 0 || newBoard.CountEmpty() < 3)
+            throw new IllegalArgumentException("El tablero base no tiene lugar para una caja, su meta y el jugador");
         
-        return Metaheuristics.application.movesHistory.getPushesCount();
+        newBoard.Add(GeneratorUtils.GetBoxSpace(newBoard, random), BoardGenome.BOX);
+        newBoard.Add(GeneratorUtils.GetEmptySpace(newBoard, random), BoardGenome.GOAL);
+        newBoard.Add(GeneratorUtils.GetEmptySpace(newBoard, random), BoardGenome.PLAYER);
         
+        return newBoard;
     }
 }
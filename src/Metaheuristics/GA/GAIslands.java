@@ -0,0 +1,317 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metaheuristics.GA;
+
+import Metaheuristics.BoardCrossover;
+import Metaheuristics.BoardMutation;
+import Metaheuristics.EvaluationBudget;
+import Metaheuristics.FitnessCache;
+import Metaheuristics.MetaComparator;
+import Metaheuristics.MetaInitialize;
+import Metaheuristics.Metaheuristics;
+import Metaheuristics.MetricsSink;
+import Metaheuristics.SurrogateModel;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import org.moeaframework.core.Population;
+import org.moeaframework.core.Solution;
+import org.moeaframework.core.operator.CompoundVariation;
+
+/**
+ * GA con modelo de islas.
+ *
+ * Cada isla es una población propia que corre en su propio hilo, con su
+ * propio Random (hijo de P_SEED), su propio cache y contexto de solver y su
+ * parte de MAXEVALUATIONS (ver Metaheuristics.SetThreadContext). Cada
+ * P_MIGRATION_INTERVAL generaciones una isla publica copias de sus
+ * P_MIGRATION_SIZE mejores tableros para la siguiente isla (RING) o para
+ * todas las demás (FULL) y sigue sin esperar a nadie. Al empezar la
+ * generación siguiente toma lo que publicaron sus vecinas en esa misma
+ * generación, esperándolas solo si van atrasadas, y los inmigrantes
+ * reemplazan a los peores. Así no hay una barrera global por generación y
+ * una corrida con la misma semilla siempre da los mismos tableros. Lo
+ * publicado en una generación se borra cuando ya lo leyeron (o terminaron)
+ * todas las islas que lo reciben.
+ *
+ * Cada isla escribe su GA_Results a medida que avanza (ver MetricsSink) y al
+ * final se escribe el global, donde la generación g junta las poblaciones de
+ * las islas que llegaron a esa generación.
+ *
+ * @author Hans
+ */
+public class GAIslands {
+
+    public enum Topology {
+        RING,
+        FULL
+    }
+
+    private Island[] islands;
+    //Archivo global; el de cada isla es el mismo nombre con _island<id>
+    private MetricsSink metrics;
+
+    public void Start(){
+        System.out.println("Running GAIslands");
+        Metaheuristics.Init();
+
+        int count = Math.max(1, Metaheuristics.P_ISLANDS);
+        islands = new Island[count];
+        for (int i = 0; i < count; i++) {
+            //El resto de la división se reparte entre las primeras islas
+            int share = Metaheuristics.MAXEVALUATIONS / count + (i < Metaheuristics.MAXEVALUATIONS % count ? 1 : 0);
+            islands[i] = new Island(i, Metaheuristics.random.nextLong(), new EvaluationBudget(share));
+        }
+
+        metrics = MetricsSink.Open(Metaheuristics.P_RESULTS_NAME,
+                Metaheuristics.I_ALG_NAME + " (" + count + " islands)");
+
+        Metaheuristics.S_TIME = new Date().getTime();
+        Thread[] threads = new Thread[count];
+        for (int i = 0; i < count; i++) {
+            threads[i] = new Thread(islands[i], "GAIslands.Island-" + i);
+            threads[i].start();
+        }
+
+        try {
+            for (Thread thread : threads)
+                thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        Metaheuristics.E_TIME = new Date().getTime();
+        Metaheuristics.TOTALTIME += Metaheuristics.E_TIME-Metaheuristics.S_TIME;
+
+        for (Island island : islands) {
+            if (island.error != null)
+                throw new IllegalStateException("Island " + island.id, island.error);
+        }
+
+        GetResults();
+    }
+
+    private void GetResults(){
+        Solution bestSolution = null;
+        int generations = 0;
+        for (Island island : islands) {
+            Solution islandBest = Best(island.ga.getPopulation(), 1).get(0);
+            island.metrics.Close(((GABoard)islandBest.getVariable(0)).GetBoard(), islandBest.getObjective(0));
+
+            if (bestSolution == null || islandBest.getObjective(0) > bestSolution.getObjective(0))
+                bestSolution = islandBest;
+            generations = Math.max(generations, island.generations.size());
+        }
+
+        //Global: se juntan las islas que llegaron a cada generación; el
+        //tiempo es el de la isla más lenta y el resto se suma
+        for (int g = 0; g < generations; g++) {
+            double[] global = new double[MetricsSink.COLUMNS];
+            global[0] = Double.NEGATIVE_INFINITY;
+            global[1] = Double.POSITIVE_INFINITY;
+            for (Island island : islands) {
+                if (g >= island.generations.size())
+                    continue;
+                double[] row = island.generations.get(g);
+                global[0] = Math.max(global[0], row[0]);
+                global[1] = Math.min(global[1], row[1]);
+                global[MetricsSink.WALL_MILLIS] = Math.max(global[MetricsSink.WALL_MILLIS], row[MetricsSink.WALL_MILLIS]);
+                for (int column = 2; column < MetricsSink.COLUMNS; column++) {
+                    if (column != MetricsSink.WALL_MILLIS)
+                        global[column] += row[column];
+                }
+            }
+            metrics.Write(global);
+        }
+        metrics.Close(((GABoard)bestSolution.getVariable(0)).GetBoard(), bestSolution.getObjective(0));
+
+        Metaheuristics.BESTFITNESS = bestSolution.getObjective(0);
+        Metaheuristics.BESTBOARD = ((GABoard)bestSolution.getVariable(0)).GetBoard();
+        Metaheuristics.PrintStatistics();
+    }
+
+    private static boolean IsMigration(int generation) {
+        return Metaheuristics.P_MIGRATION_INTERVAL > 0 && (generation + 1) % Metaheuristics.P_MIGRATION_INTERVAL == 0;
+    }
+
+    //Islas que mandan inmigrantes a la isla, siempre en el mismo orden
+    private List<Island> Sources(Island to) {
+        ArrayList<Island> sources = new ArrayList<>();
+        if (Metaheuristics.P_MIGRATION_TOPOLOGY == Topology.RING) {
+            if (islands.length > 1)
+                sources.add(islands[(to.id + islands.length - 1) % islands.length]);
+        } else {
+            for (Island island : islands) {
+                if (island != to)
+                    sources.add(island);
+            }
+        }
+        return sources;
+    }
+
+    //Cuántas islas reciben los inmigrantes de cada isla (ver Sources)
+    private int Receivers() {
+        if (islands.length <= 1)
+            return 0;
+        return Metaheuristics.P_MIGRATION_TOPOLOGY == Topology.RING ? 1 : islands.length - 1;
+    }
+
+    private static List<Solution> Best(Population population, int count) {
+        ArrayList<Solution> sorted = new ArrayList<>();
+        for (Solution solution : population)
+            sorted.add(solution);
+        sorted.sort(new MetaComparator());
+        return sorted.subList(0, Math.min(count, sorted.size()));
+    }
+
+    private class Island implements Runnable {
+        final int id;
+        final long seed;
+        final EvaluationBudget budget;
+        final FitnessCache cache = new FitnessCache(Metaheuristics.P_FITNESS_CACHE_SIZE);
+        final SurrogateModel surrogate;
+        //Una fila de MetricsSink.Record por generación, para el archivo global
+        final ArrayList<double[]> generations = new ArrayList<>();
+        MetricsSink metrics;
+        AlgGA ga;
+        Throwable error;
+        //Emigrantes publicados en cada generación de migración y cuántas de
+        //las islas que los reciben faltan por leerlos
+        private final HashMap<Integer, List<Solution>> emigrants = new HashMap<>();
+        private final HashMap<Integer, Integer> unread = new HashMap<>();
+        //Islas que reciben de esta y ya terminaron
+        private int gone;
+        private boolean finished;
+        //Última generación de migración que recibió esta isla
+        private int received = -1;
+
+        Island(int id, long seed, EvaluationBudget budget) {
+            this.id = id;
+            this.seed = seed;
+            this.budget = budget;
+            this.surrogate = new SurrogateModel(new Random(~seed));
+        }
+
+        @Override
+        public void run() {
+            Metaheuristics.SetThreadContext(budget, cache, surrogate);
+            try {
+                //Cada operador con su propio Random, hijo del de la isla
+                Random random = new Random(seed);
+                BoardCrossover crossover = new BoardCrossover(Metaheuristics.P_CROSSOVER_PROB_GA,
+                        Metaheuristics.NewStream(random));
+                BoardMutation mutation = new BoardMutation(Metaheuristics.P_MUTATION_PROB_GA,
+                        Metaheuristics.NewStream(random));
+                GAProblem problem = new GAProblem(Metaheuristics.application);
+
+                ga = new AlgGA(
+                        problem,
+                        Metaheuristics.P_POPULATION_COUNT,
+                        new MetaComparator(),
+                        new MetaInitialize(problem, Metaheuristics.NewStream(random)),
+                        new CompoundVariation(crossover, mutation),
+                        Metaheuristics.NewStream(random)
+                );
+
+                //Se abre en el hilo de la isla, así mide su presupuesto y su cache
+                String name = GAIslands.this.metrics.GetName();
+                metrics = MetricsSink.Open(name == null ? null : name + "_island" + id,
+                        Metaheuristics.I_ALG_NAME + " (island " + id + ")");
+
+                for (int generation = 0; !Metaheuristics.IsStopped(); generation++) {
+                    if (generation > 0 && IsMigration(generation - 1))
+                        ga.acceptMigrants(Receive(generation - 1));
+
+                    ga.step();
+                    generations.add(metrics.Record(MetricsSink.GenerationStats(ga.getPopulation())));
+
+                    if (IsMigration(generation))
+                        Publish(generation);
+                }
+                System.out.println("Island " + id + ": " + generations.size() + " generations, "
+                        + budget.GetEvaluations() + " evaluations, " + cache.GetHits() + " cache hits");
+            } catch (RuntimeException | Error e) {
+                error = e;
+            } finally {
+                Metaheuristics.SetThreadContext(null, null);
+                //Con error no se llega a GetResults: se deja escrito lo que haya
+                if (error != null && metrics != null)
+                    metrics.close();
+                Finish();
+                for (Island source : Sources(this))
+                    source.Abandon(received);
+            }
+        }
+
+        //Copias de los mejores de la isla, para que las tomen sus vecinas
+        private synchronized void Publish(int generation) {
+            ArrayList<Solution> copies = new ArrayList<>();
+            for (Solution solution : Best(ga.getPopulation(), Metaheuristics.P_MIGRATION_SIZE))
+                copies.add(solution.copy());
+            int readers = Receivers() - gone;
+            if (readers <= 0)
+                return;
+            emigrants.put(generation, copies);
+            unread.put(generation, readers);
+            notifyAll();
+        }
+
+        private synchronized void Finish() {
+            finished = true;
+            notifyAll();
+        }
+
+        //Emigrantes de la generación, o null si la isla terminó antes de llegar a ella.
+        //La llama una vez cada isla que los recibe
+        private synchronized List<Solution> Emigrants(int generation) throws InterruptedException {
+            while (!emigrants.containsKey(generation) && !finished)
+                wait();
+            List<Solution> sent = emigrants.get(generation);
+            if (sent != null)
+                Read(generation);
+            return sent;
+        }
+
+        //Una isla más leyó (o ya no va a leer) lo publicado en la generación
+        private void Read(int generation) {
+            int left = unread.get(generation) - 1;
+            if (left > 0) {
+                unread.put(generation, left);
+            } else {
+                unread.remove(generation);
+                emigrants.remove(generation);
+            }
+        }
+
+        //Una isla que recibe de esta terminó después de recibir la generación last
+        private synchronized void Abandon(int last) {
+            gone++;
+            for (Integer generation : new ArrayList<>(unread.keySet())) {
+                if (generation > last)
+                    Read(generation);
+            }
+        }
+
+        private List<Solution> Receive(int generation) {
+            ArrayList<Solution> migrants = new ArrayList<>();
+            try {
+                for (Island source : Sources(this)) {
+                    List<Solution> sent = source.Emigrants(generation);
+                    if (sent == null)
+                        continue;
+                    for (Solution solution : sent)
+                        migrants.add(solution.copy());
+                }
+                received = generation;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return migrants;
+        }
+    }
+}
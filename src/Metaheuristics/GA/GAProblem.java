@@ -4,8 +4,10 @@
  */
 package Metaheuristics.GA;
 
+import Metaheuristics.BoardGenome;
+import Metaheuristics.EvaluationResult;
 import Metaheuristics.Metaheuristics;
-import SokoGenerator.GeneratorUtils;
+import Metaheuristics.MetricsRegistry;
 import de.sokoban_online.jsoko.JSoko;
 import org.moeaframework.core.Solution;
 import org.moeaframework.problem.AbstractProblem;
@@ -33,28 +35,29 @@ public class GAProblem extends AbstractProblem {
     public void evaluate(Solution solution) {
         //System.out.println("Evaluate");
         Metaheuristics.EVALUATECOUNT++;
-        char[][] boardAux = ((GABoard)solution.getVariable(0)).GetBoard();
+        BoardGenome boardAux = ((GABoard)solution.getVariable(0)).GetGenome();
         
-        if(Metaheuristics.Solve(boardAux, true, GeneratorUtils.CountCharacters(1, boardAux))==null)
+        EvaluationResult result = Metaheuristics.Solve(boardAux, true);
+        if(!result.solved)
         {
             //GeneratorUtils.PrintCharArray(board);
             //System.out.println("check");
             solution.setObjective(0, -1); // Maximizar el número de 'A'
         }
         else{
-            solution.setObjective(0, Metaheuristics.application.movesHistory.getPushesCount()); // Maximizar el número de 'A'
+            solution.setObjective(0, result.pushes); // Maximizar el número de 'A'
         } 
     }
 
     @Override
     public Solution newSolution() {
         
-        Metaheuristics.NEWSOlCOUNT++;
+        MetricsRegistry.Count(MetricsRegistry.Counter.NEW_SOLUTIONS);
         //System.out.println("New solution");
         Solution solution = new Solution(1, 1);
         solution.setObjective(0, 999);
         //Init
-        GABoard gaBoard = new GABoard(Metaheuristics.P_BASE_BOARD);
+        GABoard gaBoard = new GABoard(BoardGenome.FromChars(Metaheuristics.P_BASE_BOARD));
         var fitness = gaBoard.Initialize();
         
         solution.setVariable(0,gaBoard);
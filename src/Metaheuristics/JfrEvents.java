@@ -0,0 +1,130 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metaheuristics;
+
+import Metaheuristics.GA.GABoard;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.moeaframework.core.Solution;
+
+/**
+ * Eventos de JDK Flight Recorder de la corrida: cada pedido de evaluación de
+ * un tablero (también los que contesta el cache), cada aplicación de un operador y cada generación de AlgGA. Con
+ * una grabación (por ejemplo java -XX:StartFlightRecording=filename=run.jfr)
+ * se ven en JDK Mission Control junto a los eventos de GC y de memoria, así
+ * una corrida que se pone lenta muestra si fueron unos pocos tableros caros,
+ * el GC u otro hilo.
+ *
+ * Sin una grabación activa los eventos no se guardan y crearlos no cuesta
+ * casi nada; los campos se llenan solo si shouldCommit.
+ *
+ * @author Hans
+ */
+public final class JfrEvents {
+
+    private JfrEvents() {
+    }
+
+    @Name("Metaheuristics.Solve")
+    @Label("Solve")
+    @Category("Metaheuristics")
+    @Description("Un Solve, o un tablero de SolveAll; Cached si el resultado salió del cache")
+    public static final class Solve extends Event {
+        @Label("Board Hash")
+        public int boardHash;
+
+        @Label("Boxes")
+        public int boxes;
+
+        @Label("Solver")
+        public String solver;
+
+        @Label("Nodes")
+        @Description("Posiciones que expandió el solver")
+        public int nodes;
+
+        @Label("Result")
+        @Description("SOLVED, UNSOLVED, BUDGET_EXCEEDED, PRE_SCREENED o STORED")
+        public String result;
+
+        @Label("Pushes")
+        public int pushes;
+
+        @Label("Cached")
+        @Description("El resultado salió del cache, sin evaluar el tablero")
+        public boolean cached = true;
+
+        //Cierra el evento y lo guarda si hay una grabación; devuelve evaluation
+        public EvaluationResult Commit(BoardGenome board, boolean optimal, EvaluationResult evaluation) {
+            end();
+            if (!shouldCommit())
+                return evaluation;
+            boardHash = board.hashCode();
+            boxes = board.Count(BoardGenome.BOX);
+            solver = optimal ? "SolverAStarPushesMoves" : "SolverAnySolution";
+            nodes = evaluation.nodes;
+            pushes = evaluation.pushes;
+            if (result == null)
+                result = evaluation.screened != null ? "PRE_SCREENED" : evaluation.budgetExceeded ? "BUDGET_EXCEEDED"
+                        : evaluation.solved ? "SOLVED" : "UNSOLVED";
+            commit();
+            return evaluation;
+        }
+    }
+
+    @Name("Metaheuristics.Operator")
+    @Label("Operator")
+    @Category("Metaheuristics")
+    @Description("Una aplicación de un operador de cruce o mutación")
+    public static final class Operator extends Event {
+        @Label("Operator")
+        public String operator;
+
+        @Label("Kind")
+        @Description("Variante aplicada (MoveMutation, AddMutation...), vacío si el hijo es el padre")
+        public String kind;
+
+        @Label("Boxes")
+        @Description("Cajas del hijo")
+        public int boxes;
+
+        //Cierra el evento y lo guarda si hay una grabación; kind null si el hijo es el padre
+        public void Commit(String operator, String kind, BoardGenome child) {
+            end();
+            if (!shouldCommit())
+                return;
+            this.operator = operator;
+            this.kind = kind == null ? "" : kind;
+            this.boxes = child.Count(BoardGenome.BOX);
+            commit();
+        }
+
+        public void Commit(String operator, String kind, Solution child) {
+            Commit(operator, kind, ((GABoard) child.getVariable(0)).GetGenome());
+        }
+    }
+
+    @Name("Metaheuristics.Generation")
+    @Label("Generation")
+    @Category("Metaheuristics")
+    @Description("Un paso de AlgGA")
+    public static final class Generation extends Event {
+        @Label("Generation")
+        public int generation;
+
+        @Label("Population")
+        public int population;
+
+        @Label("Best Fitness")
+        public double bestFitness;
+
+        @Label("Evaluations")
+        @Description("Evaluaciones hechas hasta el final de la generación (del hilo si tiene presupuesto propio)")
+        public long evaluations;
+    }
+}
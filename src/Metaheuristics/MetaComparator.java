@@ -5,7 +5,6 @@
 package Metaheuristics;
 
 import Metaheuristics.GA.GABoard;
-import SokoGenerator.GeneratorUtils;
 import org.moeaframework.algorithm.single.AggregateObjectiveComparator;
 import org.moeaframework.core.Solution;
 
@@ -23,14 +22,13 @@ public class MetaComparator implements AggregateObjectiveComparator{
     @Override
     public double calculateFitness(Solution solution) {
         System.out.println("Compute fitness");
-        Metaheuristics.CALCULATEFITNESS++;
+        MetricsRegistry.Count(MetricsRegistry.Counter.FITNESS_COMPARISONS);
         
-        int boxCount = GeneratorUtils.CountCharacters(1, ((GABoard) solution.getVariable(0)).GetBoard());
-        Metaheuristics.Solve(((GABoard) solution.getVariable(0)).GetBoard(), true, boxCount);
+        EvaluationResult result = Metaheuristics.Solve(((GABoard) solution.getVariable(0)).GetGenome(), true);
         
         //GeneratorUtils.PrintCharArray(board);
         //System.out.println("GAProblem.application.movesHistory.getPushesCount(): " + GAProblem.application.movesHistory.getPushesCount());
-        return Metaheuristics.application.movesHistory.getPushesCount(); // Modificar para devolver el valor de ajuste adecuado
+        return result.pushes; // Modificar para devolver el valor de ajuste adecuado
     }
 
     @Override
@@ -4,10 +4,12 @@
  */
 package Metaheuristics;
 
+import Metaheuristics.GA.GABoard;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
 import org.moeaframework.core.Initialization;
 import org.moeaframework.core.Problem;
 import org.moeaframework.core.Solution;
@@ -18,10 +20,12 @@ import org.moeaframework.core.Solution;
  */
 public class MetaInitialize implements Initialization {
     protected final Problem problem;
-    public MetaInitialize(Problem problem) {
+    private final Random random;
+    public MetaInitialize(Problem problem, Random random) {
         super();
         //System.out.println("MetaInitialize");
         this.problem = problem;
+        this.random = random;
     }
     
     /*@Override
@@ -42,38 +46,78 @@ public class MetaInitialize implements Initialization {
 
         System.out.println("->initialize: "+populationSize);
         
-        ArrayList<Solution> initialPopulationAux = new ArrayList<>();
+        //Los mejores encontrados; el primero de la cola es el peor de ellos
+        int size = Math.min(populationSize, Metaheuristics.P_INITIAL_SEARCH_SIZE);
+        PriorityQueue<Ranked> best = new PriorityQueue<>(Math.max(1, size), WORST_FIRST);
+        BoardGenome baseBoard = BoardGenome.FromChars(Metaheuristics.P_BASE_BOARD);
         
-        for (int i = 0; i < Metaheuristics.P_INITIAL_SEARCH_SIZE; i++) {
-                Solution solution= problem.newSolution();
-                initialPopulationAux.add(solution);
-        }
-        
-        // Ordenar la lista de individuos de mayor a menor según la variable fitness
-        Collections.sort(initialPopulationAux, new Comparator<Solution>() {
-            @Override
-            public int compare(Solution o1, Solution o2) {
-                // Ordenar de mayor a menor
-                return Double.compare(o2.getObjective(0), o1.getObjective(0));
-            }
-        });
-
-        // Obtener los primeros 10 elementos
-        List<Solution> topIndividuals = initialPopulationAux.subList(0, Math.min(populationSize, Metaheuristics.P_INITIAL_SEARCH_SIZE));
-        /*for (int i = 0; i < initialPopulationAux.size(); i++) {
-            ((GABoard)initialPopulationAux.get(i).getVariable(i)).SetBoard(null);
-        }*/
+        //Con P_INITIAL_TARGET_FITNESS se evalua de a P_THREADS tableros para
+        //poder parar apenas la población llega a ese fitness
+        boolean earlyStop = Metaheuristics.P_INITIAL_TARGET_FITNESS > 0;
         
-        initialPopulationAux=null;
-        // Crear un array a partir de la lista acortada
-        //Solution[] initialPopulation = topIndividuals.toArray(new Solution[0]);
+        //Se generan tandas de tableros al azar y se evaluan juntos (Metaheuristics.SolveAll)
+        //hasta tener P_INITIAL_SEARCH_SIZE tableros con solución
+        int found = 0;
+        while (found < Metaheuristics.P_INITIAL_SEARCH_SIZE && !IsDone(best, size, earlyStop)) {
+                int missing = Metaheuristics.P_INITIAL_SEARCH_SIZE - found;
+                int batch = earlyStop ? Math.min(missing, Math.max(1, Metaheuristics.P_THREADS)) : missing;
+                ArrayList<BoardGenome> candidates = new ArrayList<>(batch);
+                for (int i = 0; i < batch; i++) {
+                        candidates.add(GABoard.InitialBoard(baseBoard, random));
+                }
+                
+                List<EvaluationResult> results = Metaheuristics.SolveAll(candidates, false);
+                for (int i = 0; i < batch; i++) {
+                        if (!results.get(i).solved)
+                                continue;
+                        
+                        MetricsRegistry.Count(MetricsRegistry.Counter.NEW_SOLUTIONS);
+                        Offer(best, size, candidates.get(i), results.get(i).pushes, found++);
+                }
+        }
         
+        // Ordenar de mayor a menor; con el mismo fitness, primero el que se encontró antes
+        ArrayList<Ranked> sorted = new ArrayList<>(best);
+        sorted.sort(WORST_FIRST.reversed());
+        Solution[] initialPopulation = new Solution[sorted.size()];
+        for (int i = 0; i < initialPopulation.length; i++) {
+                Solution solution = new Solution(1, 1);
+                solution.setVariable(0, new GABoard(sorted.get(i).board));
+                solution.setObjective(0, sorted.get(i).pushes);
+                initialPopulation[i] = solution;
+        }
+        return initialPopulation;
+    }
+    
+    //Se queda con el tablero si está entre los size mejores
+    private static void Offer(PriorityQueue<Ranked> best, int size, BoardGenome board, int pushes, int order) {
+        if (best.size() < size) {
+                best.add(new Ranked(board, pushes, order));
+        } else if (size > 0 && pushes > best.peek().pushes) {
+                best.poll();
+                best.add(new Ranked(board, pushes, order));
+        }
+    }
+    
+    private static boolean IsDone(PriorityQueue<Ranked> best, int size, boolean earlyStop) {
+        return earlyStop && best.size() == size && size > 0
+                && best.peek().pushes >= Metaheuristics.P_INITIAL_TARGET_FITNESS;
+    }
+    
+    //Peor fitness primero; con el mismo fitness, el que se encontró después
+    private static final Comparator<Ranked> WORST_FIRST =
+            Comparator.<Ranked>comparingInt(r -> r.pushes).thenComparingInt(r -> -r.order);
+    
+    private static final class Ranked {
+        final BoardGenome board;
+        final int pushes;
+        final int order;
         
-        //GC
-        //System.gc();
-        //System.runFinalization();
-        //Runtime.getRuntime().gc();
-        return topIndividuals.toArray(new Solution[0]);
+        Ranked(BoardGenome board, int pushes, int order) {
+            this.board = board;
+            this.pushes = pushes;
+            this.order = order;
+        }
     }
     
 }
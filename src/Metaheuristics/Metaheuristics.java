@@ -4,14 +4,22 @@
  */
 package Metaheuristics;
 
+import Metaheuristics.GA.GAIslands;
 import SokoGenerator.GeneratorUtils;
 import de.sokoban_online.jsoko.JSoko;
-import de.sokoban_online.jsoko.leveldata.Level;
-import de.sokoban_online.jsoko.leveldata.LevelCollection;
-import de.sokoban_online.jsoko.solver.AnySolution.SolverAnySolution;
-import de.sokoban_online.jsoko.solver.SolverAStarPushesMoves;
-import de.sokoban_online.jsoko.solver.SolverGUI;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import org.moeaframework.core.PRNG;
 
 /**
  *
@@ -21,33 +29,77 @@ public class Metaheuristics {
     //JSoko
     public static Random random;
     public static JSoko application;
-    public static Level solverLevel;
-    public static LevelCollection levelCollection;
-    public static SolverGUI solverGUI;
+    //Cada hilo evalua con su propio contexto (Board, solver e historial)
+    private static final ThreadLocal<BoardEvaluator> evaluator = ThreadLocal.withInitial(BoardEvaluator::new);
+    //Presupuesto de evaluaciones y cache propios del hilo (islas de GAIslands)
+    private static final ThreadLocal<EvaluationBudget> threadBudget = new ThreadLocal<>();
+    private static final ThreadLocal<FitnessCache> threadCache = new ThreadLocal<>();
+    private static final ThreadLocal<SurrogateModel> threadSurrogate = new ThreadLocal<>();
+    //Caches y modelos que tuvo cada hilo de la corrida, para PrintStatistics
+    private static final List<FitnessCache> threadCaches = new ArrayList<>();
+    private static final List<SurrogateModel> threadSurrogates = new ArrayList<>();
+    //Hilos que resuelven los tableros de SolveAll
+    private static ExecutorService pool;
+    private static int poolSize;
     
     //Stats
     public static String I_ALG_NAME;
     public static int I_BOARD_ID = 0;
-    public static int R_TOTAL_CROSSOVER;
-    public static int R_TOTAL_EFFECTIVE_CROSSOVER;
-    public static int R_TOTAL_REPAIR;
-    public static int R_TOTAL_EFFECTIVE_REPAIR;
-    public static int R_TOTAL_MUTATION;
-    public static int R_TOTAL_MOVE_MUTATION;
-    public static int R_TOTAL_ADD_MUTATION;
-    public static int R_TOTAL_REMOVE_MUTATION;
-    public static int R_TOTAL_EFFECTIVE_MUTATION;
+    //Contadores de operadores, copias, etc.: ver MetricsRegistry
     
     //Hyperparameters
     public static int P_POPULATION_COUNT = 15;
     public static int P_INITIAL_SEARCH_SIZE = 80;
+    //MetaInitialize deja de buscar cuando toda la población tiene este fitness (0 = no para antes)
+    public static int P_INITIAL_TARGET_FITNESS = 0;
     public static float P_CROSSOVER_PROB_GA = .95f;
     public static float P_CROSSOVER_PROB_DE = .95f;
     public static float P_MUTATION_PROB_GA = 0.1f;
     public static float P_MUTATION_PROB_ES = .95f;
     public static double P_INITIAL_TEMPERATURE =3000;
     public static double P_COOLING_RATE = 0.015;
+    //Vecinos que SA genera y evalua en paralelo en cada paso (1 = uno por paso)
+    public static int P_SA_NEIGHBOURS = 1;
+    //Parallel tempering (SATempering): réplicas entre P_INITIAL_TEMPERATURE y
+    //P_MIN_TEMPERATURE, con un intercambio cada P_SWAP_INTERVAL pasos
+    public static int P_REPLICAS = 4;
+    public static double P_MIN_TEMPERATURE = 1;
+    public static int P_SWAP_INTERVAL = 10;
+    //Modelo del fitness (SurrogateModel): con P_SURROGATE_MIN_SAMPLES tableros
+    //resueltos solo se resuelve la fracción P_SURROGATE_TOP de los hijos con
+    //mejor predicción y, del resto, cada uno con probabilidad P_SURROGATE_EXPLORE
+    //(P_SURROGATE_TOP >= 1 solo mide la correlación, sin descartar nada)
+    public static boolean P_SURROGATE = false;
+    public static double P_SURROGATE_TOP = 0.5;
+    public static double P_SURROGATE_EXPLORE = 0.1;
+    public static int P_SURROGATE_MIN_SAMPLES = 50;
  
+    public static int P_THREADS = Runtime.getRuntime().availableProcessors();
+    //Semilla de la corrida, Init la aplica a random y a PRNG
+    public static long P_SEED = new Random().nextLong();
+    public static int P_FITNESS_CACHE_SIZE = 4096;
+    //Presupuesto de cada evaluación (0 = sin límite)
+    public static int P_MAX_SOLVE_NODES = 2000000;
+    public static int P_MAX_SOLVE_POSITIONS = 1 << 22;
+    public static long P_MAX_SOLVE_MILLIS = 30000;
+    //Archivo compartido con los resultados del solver (null para no usarlo)
+    public static String P_FITNESS_STORE_PATH = null;
+    public static int P_FITNESS_STORE_SIZE = 1 << 16;
+    //Modelo de islas (GAIslands)
+    public static int P_ISLANDS = 4;
+    public static int P_MIGRATION_INTERVAL = 5;
+    public static int P_MIGRATION_SIZE = 2;
+    public static GAIslands.Topology P_MIGRATION_TOPOLOGY = GAIslands.Topology.RING;
+    //Archivo de resultados por generación, sin .csv (null = Tests/GA_Results_<fecha>_<pid>, ver MetricsSink)
+    public static String P_RESULTS_NAME = null;
+    //Filas que MetricsSink junta antes de escribir al archivo
+    public static int P_METRICS_FLUSH_ROWS = 10;
+ 
+    //Las cajas nuevas no van en casillas donde no se pueden mover (GeneratorUtils.GetBoxSpace)
+    public static boolean P_SKIP_DEAD_BOX_SQUARES = true;
+    //Tableros iniciales armados tirando la caja desde su meta (SokoGenerator.ReverseGenerator)
+    public static boolean P_REVERSE_INIT = true;
+    public static int P_REVERSE_PULLS = 30;
     public static int P_MAX_BOXES = 6;
     public static int P_CROSS_SPACING = 2;
     public static char[][] P_BASE_BOARD = {
@@ -59,14 +111,18 @@ public class Metaheuristics {
     {'#', ' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', '#', '#'},
     {'#', ' ', ' ', '#', ' ', ' ', ' ', ' ', '#', '#', '#'},
     {'#', '#', '#', '#', '#', '#', '#', '#', '#', '#', '#'}};
-    public static int NEWSOlCOUNT = 0;  
-    public static int COPY = 0;
-    public static int CALCULATEFITNESS = 0; 
     
     //Evaluation count
     public static int EVALUATECOUNT = 0;
     public static int MAXEVALUATIONS = 800; 
-    public static boolean STOP = false; 
+    public static volatile boolean STOP = false; 
+    //Se crea en Init, así cada corrida empieza sin tableros de la anterior
+    public static FitnessCache fitnessCache;
+    //Se apaga (null) si falla el disco, ver DisableStore
+    public static volatile FitnessStore fitnessStore;
+    public static SurrogateModel surrogate;
+    //Tiempo dentro del solver, de todos los hilos
+    private static long SOLVERNANOS = 0;
     public static long TOTALTIME = 0; 
     public static long S_TIME = 0;
     public static long E_TIME = 0;
@@ -77,39 +133,359 @@ public class Metaheuristics {
     
     public Metaheuristics(JSoko application) {
         Metaheuristics.application = application;
-        Metaheuristics.random = new Random();
+        Metaheuristics.random = new Random(P_SEED);
     }
     
     public static void Init(){
-        Metaheuristics.solverLevel = new Level(application.levelIO.database);
-        Metaheuristics.solverGUI = new SolverGUI(application);
         Metaheuristics.runtime = Runtime.getRuntime();
+        Metaheuristics.random = new Random(P_SEED);
+        PRNG.setSeed(P_SEED);
+        MetricsRegistry.Register();
+        //Su propio Random, así usarlo no cambia los de los operadores
+        surrogate = new SurrogateModel(new Random(~P_SEED));
+        //Con el P_FITNESS_CACHE_SIZE de esta corrida (0 lo apaga)
+        fitnessCache = new FitnessCache(P_FITNESS_CACHE_SIZE);
+        synchronized(threadCaches){
+            threadCaches.clear();
+            threadSurrogates.clear();
+        }
+        
+        if(P_FITNESS_STORE_PATH != null && fitnessStore == null){
+            try {
+                fitnessStore = FitnessStore.Open(P_FITNESS_STORE_PATH, P_FITNESS_STORE_SIZE);
+            } catch (IOException e) {
+                System.out.println("No se pudo abrir " + P_FITNESS_STORE_PATH + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Random hijo de parent. Cada operador recibe el suyo al crearlo:
+     * P_SEED -> random -> (isla ->) operador. Mientras los hijos se creen en
+     * el mismo orden, una corrida con la misma semilla da lo mismo aunque
+     * evalue en paralelo.
+     */
+    public static Random NewStream(Random parent) {
+        return new Random(parent.nextLong());
+    }
+    
+    /**
+     * Hace que el hilo actual use su propia parte de MAXEVALUATIONS y su
+     * propio cache (null para volver a los globales). Un hilo con presupuesto
+     * propio resuelve sus tableros él mismo, con su propio BoardEvaluator,
+     * sin pasar por los hilos de SolveAll. Con un cache propio los aciertos
+     * no dependen de lo que evaluaron antes los otros hilos.
+     */
+    public static void SetThreadContext(EvaluationBudget budget, FitnessCache cache) {
+        SetThreadContext(budget, cache, null);
+    }
+    
+    //Igual, con un SurrogateModel propio del hilo
+    public static void SetThreadContext(EvaluationBudget budget, FitnessCache cache, SurrogateModel model) {
+        threadBudget.set(budget);
+        threadCache.set(cache);
+        threadSurrogate.set(model);
+        synchronized(threadCaches){
+            if(cache != null && !threadCaches.contains(cache))
+                threadCaches.add(cache);
+            if(model != null && !threadSurrogates.contains(model))
+                threadSurrogates.add(model);
+        }
     }
     
-    public static de.sokoban_online.jsoko.leveldata.solutions.Solution Solve(char[][] board, boolean optimal, int boxCount) {
+    private static FitnessCache GetFitnessCache() {
+        FitnessCache cache = threadCache.get();
+        return cache != null ? cache : fitnessCache;
+    }
+    
+    public static SurrogateModel GetSurrogate() {
+        SurrogateModel model = threadSurrogate.get();
+        return model != null ? model : surrogate;
+    }
+    
+    //true si el tablero ya está en el cache del hilo (no cuenta como acierto)
+    public static boolean IsCached(BoardGenome board, boolean optimal) {
+        return GetFitnessCache().Contains(board, optimal);
+    }
+    
+    //STOP, o el presupuesto propio del hilo si tiene uno
+    public static boolean IsStopped() {
+        EvaluationBudget budget = threadBudget.get();
+        return budget != null ? budget.IsExhausted() : STOP;
+    }
+    
+    public static EvaluationResult Solve(BoardGenome board, boolean optimal) {
         
-        EVALUATECOUNT++;
-        if(EVALUATECOUNT == MAXEVALUATIONS)
-            STOP = true;
+        //Un tablero ya resuelto (o simétrico a uno resuelto) no gasta evaluaciones
+        JfrEvents.Solve event = new JfrEvents.Solve();
+        event.begin();
+        EvaluationResult result = GetFitnessCache().Get(board, optimal, (b, o) -> Evaluate(b, o, event));
+        return event.Commit(board, optimal, result);
+    }
+    
+    public static List<EvaluationResult> SolveAll(List<BoardGenome> boards, boolean optimal) {
+        return SolveAll(boards, optimal, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Evalua una lista de tableros y devuelve los resultados en el mismo orden.
+     * 
+     * Los tableros repetidos (o simétricos) se resuelven una vez, los que ya
+     * están en fitnessCache no llegan a los hilos, y el resto se reparte en
+     * P_THREADS hilos empezando por los de más cajas (los más caros), que les
+     * pasan el pre-screen y los resuelven. Solo se evaluan los primeros
+     * maxSolves de esos tableros, en el orden de la lista; el resto queda como
+     * null. Un tablero que descarta el pre-screen ocupa uno de esos lugares
+     * pero no gasta evaluaciones.
+     */
+    public static List<EvaluationResult> SolveAll(List<BoardGenome> boards, boolean optimal, int maxSolves) {
         
-        //solverLevel.setBoardData(GeneratorUtils.ConvertCharArrayToString(board));
-        solverLevel.setBoardData(board);
-        solverLevel.setBoxCount(boxCount);
-        levelCollection = (new LevelCollection.Builder()).setLevels(new Level[]{solverLevel}).build();
-        application.setCollectionForPlaying(levelCollection);
-        application.setLevelForPlaying(1);
-        application.currentLevel = solverLevel;
-
-        de.sokoban_online.jsoko.leveldata.solutions.Solution solution = null;
+        EvaluationResult[] results = new EvaluationResult[boards.size()];
+        
+        //Un solo tablero por forma canónica
+        HashMap<BoardGenome, Integer> firstIndex = new HashMap<>();
+        int[] sameAs = new int[boards.size()];
+        ArrayList<Integer> toSolve = new ArrayList<>();
+        for(int i = 0; i < boards.size(); i++){
+            BoardGenome board = boards.get(i);
+            Integer first = firstIndex.putIfAbsent(board.Canonical(), i);
+            sameAs[i] = first == null ? i : first;
+            if(first != null)
+                continue;
+            
+            JfrEvents.Solve event = new JfrEvents.Solve();
+            event.begin();
+            results[i] = GetFitnessCache().Peek(board, optimal);
+            if(results[i] != null)
+                event.Commit(board, optimal, results[i]);
+            else if(toSolve.size() < maxSolves)
+                toSolve.add(i);
+        }
         
-        if(optimal)
-            solution = new SolverAStarPushesMoves(application, solverGUI).searchSolution();
+        //Primero los tableros con más cajas, así no queda uno caro para el final
+        ArrayList<Integer> order = new ArrayList<>(toSolve);
+        Collections.sort(order, Comparator.comparingInt((Integer i) -> -boards.get(i).Count(BoardGenome.BOX)));
+        
+        if(threadBudget.get() != null){
+            //Las islas ya corren en paralelo, cada una resuelve sus tableros
+            for(int i : order)
+                results[i] = Solve(boards.get(i), optimal);
+        }
         else{
-            //GeneratorUtils.PrintCharArray(board);
-            solution = new SolverAnySolution(application, solverGUI).searchSolution();
+            //Las entradas del cache se crean aquí y en orden, así lo que queda
+            //en el cache no depende de qué hilo terminó primero
+            FitnessCache cache = GetFitnessCache();
+            ArrayList<Future<EvaluationResult>> futures = new ArrayList<>(order.size());
+            ExecutorService executor = GetPool();
+            for(int i : order){
+                BoardGenome board = boards.get(i);
+                JfrEvents.Solve event = new JfrEvents.Solve();
+                FutureTask<EvaluationResult> task = cache.Task(board, optimal, (b, o) -> Evaluate(b, o, event));
+                futures.add(executor.submit(() -> {
+                    event.begin();
+                    task.run();
+                    return event.Commit(board, optimal, cache.Await(task));
+                }));
+            }
+            
+            for(int k = 0; k < order.size(); k++)
+                results[order.get(k)] = Join(futures.get(k));
+        }
+        
+        ArrayList<EvaluationResult> list = new ArrayList<>(boards.size());
+        for(int i = 0; i < boards.size(); i++)
+            list.add(results[sameAs[i]]);
+        return list;
+    }
+    
+    /**
+     * Características de cada tablero para SurrogateModel (ver
+     * BoardEvaluator.Features), en el mismo orden; null para los marcados en
+     * skip. Se calculan en los hilos de SolveAll, o en el hilo actual si tiene
+     * presupuesto propio (las islas ya corren en paralelo).
+     */
+    public static double[][] Features(List<BoardGenome> boards, boolean[] skip) {
+        double[][] features = new double[boards.size()][];
+        if(threadBudget.get() != null){
+            for(int i = 0; i < boards.size(); i++){
+                if(!skip[i])
+                    features[i] = evaluator.get().Features(boards.get(i));
+            }
+            return features;
         }
         
-        return solution;
+        ArrayList<Future<double[]>> futures = new ArrayList<>(boards.size());
+        ExecutorService executor = GetPool();
+        for(int i = 0; i < boards.size(); i++){
+            BoardGenome board = boards.get(i);
+            futures.add(skip[i] ? null : executor.submit(() -> evaluator.get().Features(board)));
+        }
+        for(int i = 0; i < boards.size(); i++){
+            if(futures.get(i) != null)
+                features[i] = Join(futures.get(i));
+        }
+        return features;
+    }
+    
+    private static <T> T Join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+    
+    private static synchronized ExecutorService GetPool() {
+        if(pool == null || poolSize != P_THREADS){
+            if(pool != null)
+                pool.shutdown();
+            poolSize = P_THREADS;
+            pool = Executors.newFixedThreadPool(poolSize, runnable -> {
+                Thread thread = new Thread(runnable, "Metaheuristics.Solve");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return pool;
+    }
+    
+    //Evalua un tablero que no estaba en el cache; event es el Solve que lo pidió
+    private static EvaluationResult Evaluate(BoardGenome board, boolean optimal, JfrEvents.Solve event) {
+        event.cached = false;
+        
+        //Se cuenta aunque el resultado esté en disco, así una corrida con
+        //semilla fija da lo mismo con o sin fitnessStore
+        EvaluationResult result = LoadStored(board, optimal);
+        if(result != null){
+            CountEvaluation();
+            event.result = "STORED";
+            return result;
+        }
+        
+        //El tablero se resuelve en un Board propio, sin cargarlo como nivel en JSoko.
+        //Los descartados por el pre-screen no llegan al solver ni gastan evaluaciones
+        long allocated = MetricsRegistry.AllocatedBytes();
+        long start = System.nanoTime();
+        result = evaluator.get().Evaluate(board, optimal);
+        long nanos = System.nanoTime() - start;
+        if(result.screened != null){
+            BoardScreen.CountRejection(result.screened);
+            return result;
+        }
+        
+        CountEvaluation();
+        AddSolverTime(nanos);
+        MetricsRegistry.Record(MetricsRegistry.Timer.SOLVE, nanos);
+        MetricsRegistry.RecordAllocation(allocated, MetricsRegistry.AllocatedBytes());
+        //Un tablero que agotó el presupuesto no se guarda en disco, otra corrida
+        //puede tener otro presupuesto
+        if(result.budgetExceeded)
+            MetricsRegistry.Count(MetricsRegistry.Counter.BUDGET_EXCEEDED);
+        else
+            Store(board, optimal, result);
+        return result;
+    }
+    
+    private static EvaluationResult LoadStored(BoardGenome board, boolean optimal) {
+        FitnessStore store = fitnessStore;
+        if(store == null)
+            return null;
+        try {
+            return store.Get(board, optimal);
+        } catch (IOException e) {
+            DisableStore(store, e);
+            return null;
+        }
+    }
+    
+    private static void Store(BoardGenome board, boolean optimal, EvaluationResult result) {
+        FitnessStore store = fitnessStore;
+        if(store == null)
+            return;
+        try {
+            store.Put(board, optimal, result);
+        } catch (IOException e) {
+            DisableStore(store, e);
+        }
+    }
+    
+    //Un error de disco deja la corrida sin fitnessStore: se avisa una sola vez
+    //(los demás hilos que fallen con el mismo store ya lo encuentran apagado)
+    private static synchronized void DisableStore(FitnessStore store, IOException error) {
+        if(fitnessStore != store)
+            return;
+        fitnessStore = null;
+        System.out.println("Error en " + P_FITNESS_STORE_PATH + ", se sigue sin él: " + error.getMessage());
+        try {
+            store.Close();
+        } catch (IOException e) {
+            System.out.println("No se pudo cerrar " + P_FITNESS_STORE_PATH + ": " + e.getMessage());
+        }
+    }
+    
+    private static void CountEvaluation() {
+        EvaluationBudget budget = threadBudget.get();
+        if(budget != null)
+            budget.Count();
+        CountGlobalEvaluation();
+    }
+    
+    //Solve se llama desde varios hilos, el conteo de evaluaciones se sincroniza
+    private static synchronized void CountGlobalEvaluation() {
+        EVALUATECOUNT++;
+        if(EVALUATECOUNT >= MAXEVALUATIONS)
+            STOP = true;
+    }
+    
+    private static void AddSolverTime(long nanos) {
+        EvaluationBudget budget = threadBudget.get();
+        if(budget != null)
+            budget.AddSolverTime(nanos);
+        AddGlobalSolverTime(nanos);
+    }
+    
+    private static synchronized void AddGlobalSolverTime(long nanos) {
+        SOLVERNANOS += nanos;
+    }
+    
+    //Evaluaciones, aciertos del cache y tiempo del solver del hilo si tiene
+    //contexto propio, si no los globales (ver MetricsSink)
+    public static long GetEvaluations() {
+        EvaluationBudget budget = threadBudget.get();
+        if(budget != null)
+            return budget.GetEvaluations();
+        return GetGlobalEvaluations();
+    }
+    
+    public static synchronized int GetGlobalEvaluations() {
+        return EVALUATECOUNT;
+    }
+    
+    public static long GetCacheHits() {
+        return GetFitnessCache().GetHits();
+    }
+    
+    public static long GetSolverNanos() {
+        EvaluationBudget budget = threadBudget.get();
+        if(budget != null)
+            return budget.GetSolverNanos();
+        synchronized(Metaheuristics.class) {
+            return SOLVERNANOS;
+        }
+    }
+    
+    public static int GetRemainingEvaluations() {
+        EvaluationBudget budget = threadBudget.get();
+        if(budget != null)
+            return budget.GetRemaining();
+        return GetRemainingGlobalEvaluations();
+    }
+    
+    private static synchronized int GetRemainingGlobalEvaluations() {
+        return Math.max(0, MAXEVALUATIONS - EVALUATECOUNT);
     }
     
     public static void PrintMemory(){
@@ -133,30 +509,55 @@ public class Metaheuristics {
         System.out.println("Memoria usada (MB): " + usedMemory);
     }
 
+    //Columnas de contadores de la línea de resultados de PrintStatistics
+    private static final MetricsRegistry.Counter[] STATS_COUNTERS = {
+        MetricsRegistry.Counter.CROSSOVER, MetricsRegistry.Counter.EFFECTIVE_CROSSOVER,
+        MetricsRegistry.Counter.REPAIR, MetricsRegistry.Counter.EFFECTIVE_REPAIR,
+        MetricsRegistry.Counter.MUTATION, MetricsRegistry.Counter.EFFECTIVE_MUTATION,
+        MetricsRegistry.Counter.MOVE_MUTATION, MetricsRegistry.Counter.ADD_MUTATION,
+        MetricsRegistry.Counter.REMOVE_MUTATION
+    };
+    
     public static void PrintStatistics() {
         System.out.println("-> STATS: ");
-        /*System.out.println("I_ALG_NAME: " + I_ALG_NAME);
-        System.out.println("R_TOTAL_CROSSOVER: " + R_TOTAL_CROSSOVER);
-        System.out.println("R_TOTAL_EFFECTIVE_CROSSOVER: " + R_TOTAL_EFFECTIVE_CROSSOVER);
-        System.out.println("R_TOTAL_REPAIR: " + R_TOTAL_REPAIR);
-        System.out.println("R_TOTAL_EFFECTIVE_REPAIR: " + R_TOTAL_EFFECTIVE_REPAIR);
-        System.out.println("R_TOTAL_MUTATION: " + R_TOTAL_MUTATION);
-        System.out.println("R_TOTAL_EFFECTIVE_MUTATION: " + R_TOTAL_EFFECTIVE_MUTATION);
-        System.out.println("R_TOTAL_MOVE_MUTATION: " + R_TOTAL_MOVE_MUTATION);
-        System.out.println("R_TOTAL_ADD_MUTATION: " + R_TOTAL_ADD_MUTATION);
-        System.out.println("R_TOTAL_REMOVE_MUTATION: " + R_TOTAL_REMOVE_MUTATION);*/
-
-        //System.out.println("NEWSOlCOUNT: " + NEWSOlCOUNT);
-        //System.out.println("EVALUATION COUNT: " + EVALUATECOUNT);
-        //System.out.println("COPY: " + COPY);
-        //System.out.println("CALCULATEFITNESS: " + CALCULATEFITNESS);
-        
+        System.out.println("SEED: " + P_SEED);
+        //Con islas cada hilo tiene su cache y su modelo, se suman o se muestran todos
+        long hits = fitnessCache.GetHits();
+        long misses = fitnessCache.GetMisses();
+        List<SurrogateModel> models = new ArrayList<>();
+        synchronized(threadCaches){
+            for(FitnessCache cache : threadCaches){
+                hits += cache.GetHits();
+                misses += cache.GetMisses();
+            }
+            models.addAll(threadSurrogates);
+        }
+        if(models.isEmpty())
+            models.add(surrogate);
+        System.out.println("FITNESS CACHE HITS: " + hits);
+        System.out.println("FITNESS CACHE MISSES: " + misses);
+        System.out.println("BUDGET EXCEEDED: " + MetricsRegistry.Get(MetricsRegistry.Counter.BUDGET_EXCEEDED));
+        System.out.println("SURROGATE SKIPPED: " + MetricsRegistry.Get(MetricsRegistry.Counter.SURROGATE_SKIPPED));
+        if(P_SURROGATE){
+            for(int k = 0; k < models.size(); k++)
+                System.out.println(String.format("SURROGATE%s: samples=%d, spearman=%.3f",
+                        models.size() > 1 ? " " + k : "", models.get(k).GetSamples(), models.get(k).GetCorrelation()));
+        }
+        for(MetricsRegistry.Timer timer : MetricsRegistry.Timer.values())
+            System.out.println("LATENCY " + timer + ": " + MetricsRegistry.Summary(timer));
+        for(BoardScreen.Rule rule : BoardScreen.Rule.values())
+            System.out.println("PRE-SCREEN " + rule + ": " + BoardScreen.GetRejections(rule));
+        FitnessStore store = fitnessStore;
+        if(store != null){
+            System.out.println("FITNESS STORE HITS: " + store.GetHits());
+            System.out.println("FITNESS STORE MISSES: " + store.GetMisses());
+        }
+        StringBuilder counters = new StringBuilder();
+        for(MetricsRegistry.Counter counter : STATS_COUNTERS)
+            counters.append(",").append(MetricsRegistry.Get(counter));
         System.out.println(I_ALG_NAME+","+I_BOARD_ID+","+P_INITIAL_SEARCH_SIZE+","+P_POPULATION_COUNT+","+P_CROSSOVER_PROB_GA+
                 "," + P_CROSSOVER_PROB_DE + "," + P_MUTATION_PROB_GA + "," + P_MUTATION_PROB_ES +
-                "," + P_INITIAL_TEMPERATURE + "," + P_COOLING_RATE + "," + R_TOTAL_CROSSOVER +
-                "," + R_TOTAL_EFFECTIVE_CROSSOVER + "," + R_TOTAL_REPAIR + "," + R_TOTAL_EFFECTIVE_REPAIR +
-                "," + R_TOTAL_MUTATION + "," + R_TOTAL_EFFECTIVE_MUTATION + "," + R_TOTAL_MOVE_MUTATION + 
-                "," + R_TOTAL_ADD_MUTATION + "," + R_TOTAL_REMOVE_MUTATION + "," + EVALUATECOUNT +
+                "," + P_INITIAL_TEMPERATURE + "," + P_COOLING_RATE + counters + "," + EVALUATECOUNT +
                 "," + TOTALTIME + "," + BESTFITNESS);
         GeneratorUtils.PrintCharArray(BESTBOARD);
     }
@@ -0,0 +1,244 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metaheuristics;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Contadores y tiempos de la corrida. Los contadores son LongAdder, así los
+ * hilos de SolveAll, las islas y las réplicas cuentan sin perder incrementos
+ * y sin pelear por un lock. Cada Timer es un histograma de latencias en
+ * nanosegundos con un balde por potencia de 2, así registrar cuesta unas
+ * pocas sumas y los percentiles se estiman con un factor de 2.
+ *
+ * Con Register (lo llama Metaheuristics.Init) todo queda en JMX como
+ * Metaheuristics:type=MetricsRegistry, para seguir una campaña larga con
+ * jconsole mientras corre.
+ *
+ * @author Hans
+ */
+public final class MetricsRegistry implements MetricsRegistryMXBean {
+
+    public enum Counter {
+        CROSSOVER,
+        EFFECTIVE_CROSSOVER,
+        REPAIR,
+        EFFECTIVE_REPAIR,
+        MUTATION,
+        MOVE_MUTATION,
+        ADD_MUTATION,
+        REMOVE_MUTATION,
+        EFFECTIVE_MUTATION,
+        BUDGET_EXCEEDED,
+        SURROGATE_SKIPPED,
+        //Copias del arreglo de un tablero (BoardGenome, GeneratorUtils)
+        COPY,
+        NEW_SOLUTIONS,
+        FITNESS_COMPARISONS
+    }
+
+    public enum Timer {
+        SOLVE,
+        PRE_SCREEN,
+        CLONE,
+        //Una llamada al operador, hasta devolver su hijo pendiente (OffspringEvaluator.Pending)
+        CROSSOVER,
+        MUTATION
+    }
+
+    private static final String NAME = "Metaheuristics:type=MetricsRegistry";
+    private static final int BUCKETS = 64;
+
+    private static final LongAdder[] counters = NewAdders(Counter.values().length);
+    private static final LongAdder[][] buckets = new LongAdder[Timer.values().length][];
+    private static final LongAdder[] totals = NewAdders(Timer.values().length);
+    private static final LongAccumulator[] maximums = new LongAccumulator[Timer.values().length];
+    static {
+        for (int timer = 0; timer < buckets.length; timer++) {
+            buckets[timer] = NewAdders(BUCKETS);
+            maximums[timer] = new LongAccumulator(Math::max, 0);
+        }
+    }
+
+    //Bytes que reservó el solver, medidos en el hilo que resuelve
+    private static final LongAdder allocatedBytes = new LongAdder();
+    private static final LongAdder allocationSamples = new LongAdder();
+    private static final com.sun.management.ThreadMXBean threads = AllocationBean();
+
+    private static LongAdder[] NewAdders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int k = 0; k < count; k++)
+            adders[k] = new LongAdder();
+        return adders;
+    }
+
+    //null si la JVM no mide la memoria reservada por hilo
+    private static com.sun.management.ThreadMXBean AllocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean))
+            return null;
+        com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) bean;
+        if (!allocation.isThreadAllocatedMemorySupported())
+            return null;
+        if (!allocation.isThreadAllocatedMemoryEnabled())
+            allocation.setThreadAllocatedMemoryEnabled(true);
+        return allocation;
+    }
+
+    public static void Count(Counter counter) {
+        counters[counter.ordinal()].increment();
+    }
+
+    public static void Add(Counter counter, long amount) {
+        counters[counter.ordinal()].add(amount);
+    }
+
+    public static long Get(Counter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+
+    public static void Record(Timer timer, long nanos) {
+        int index = timer.ordinal();
+        buckets[index][Bucket(nanos)].increment();
+        totals[index].add(nanos);
+        maximums[index].accumulate(nanos);
+    }
+
+    //floor(log2(nanos)), 0 para 0 o 1 ns
+    private static int Bucket(long nanos) {
+        return nanos <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    //Bytes reservados hasta ahora por el hilo actual, -1 si no se pueden medir
+    public static long AllocatedBytes() {
+        return threads == null ? -1 : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    //Bytes que reservó una evaluación (diferencia de dos AllocatedBytes)
+    public static void RecordAllocation(long start, long end) {
+        if (start < 0 || end < start)
+            return;
+        allocatedBytes.add(end - start);
+        allocationSamples.increment();
+    }
+
+    public static long GetCount(Timer timer) {
+        long count = 0;
+        for (LongAdder bucket : buckets[timer.ordinal()])
+            count += bucket.sum();
+        return count;
+    }
+
+    /**
+     * Cota superior del percentil (0 a 1) en nanosegundos: el límite del
+     * balde donde cae, así el valor real está entre la mitad y él.
+     */
+    public static long GetPercentile(Timer timer, double percentile) {
+        LongAdder[] timerBuckets = buckets[timer.ordinal()];
+        long count = GetCount(timer);
+        if (count == 0)
+            return 0;
+
+        long rank = (long) Math.ceil(percentile * count);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += timerBuckets[bucket].sum();
+            if (seen >= rank)
+                return bucket >= 62 ? Long.MAX_VALUE : 1L << (bucket + 1);
+        }
+        return maximums[timer.ordinal()].get();
+    }
+
+    //count, promedio, p50, p99 y máximo en microsegundos
+    public static String Summary(Timer timer) {
+        long count = GetCount(timer);
+        double mean = count == 0 ? 0 : totals[timer.ordinal()].sum() / (double) count;
+        return String.format(Locale.ROOT, "count=%d, mean=%.1fus, p50<=%.1fus, p99<=%.1fus, max=%.1fus",
+                count, mean / 1e3, GetPercentile(timer, .5) / 1e3, GetPercentile(timer, .99) / 1e3,
+                maximums[timer.ordinal()].get() / 1e3);
+    }
+
+    //Deja el registro en JMX; si ya está (otra corrida en la misma JVM) no hace nada
+    public static void Register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(NAME);
+            if (!server.isRegistered(name))
+                server.registerMBean(new MetricsRegistry(), name);
+        } catch (JMException e) {
+            System.out.println("No se pudo registrar " + NAME + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public long getEvaluations() {
+        return Metaheuristics.GetGlobalEvaluations();
+    }
+
+    @Override
+    public double getBestFitness() {
+        return Metaheuristics.BESTFITNESS;
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Counter counter : Counter.values())
+            values.put(counter.name(), Get(counter));
+        return values;
+    }
+
+    @Override
+    public Map<String, String> getLatencies() {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (Timer timer : Timer.values())
+            values.put(timer.name(), Summary(timer));
+        return values;
+    }
+
+    @Override
+    public double getAllocatedBytesPerEvaluation() {
+        long samples = allocationSamples.sum();
+        return samples == 0 ? 0 : allocatedBytes.sum() / (double) samples;
+    }
+
+    @Override
+    public long getGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            count += Math.max(0, gc.getCollectionCount());
+        return count;
+    }
+
+    @Override
+    public long getGcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            millis += Math.max(0, gc.getCollectionTime());
+        return millis;
+    }
+
+    @Override
+    public double getGcMillisPerEvaluation() {
+        long evaluations = getEvaluations();
+        return evaluations == 0 ? 0 : getGcMillis() / (double) evaluations;
+    }
+
+    @Override
+    public long getUsedMemoryMB() {
+        Runtime runtime = Runtime.getRuntime();
+        return (runtime.totalMemory() - runtime.freeMemory()) / (1024L * 1024L);
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Interfaces/Interface.java to edit this template
+ */
+package Metaheuristics;
+
+import java.util.Map;
+
+/**
+ * Lo que MetricsRegistry muestra en JMX (jconsole). Los nombres siguen la
+ * convención de JMX (getX es el atributo X).
+ *
+ * @author Hans
+ */
+public interface MetricsRegistryMXBean {
+
+    long getEvaluations();
+
+    double getBestFitness();
+
+    Map<String, Long> getCounters();
+
+    //Resumen de cada MetricsRegistry.Timer
+    Map<String, String> getLatencies();
+
+    double getAllocatedBytesPerEvaluation();
+
+    long getGcCount();
+
+    long getGcMillis();
+
+    double getGcMillisPerEvaluation();
+
+    long getUsedMemoryMB();
+}
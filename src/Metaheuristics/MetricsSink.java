@@ -0,0 +1,229 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metaheuristics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import org.moeaframework.core.Population;
+import org.moeaframework.core.Solution;
+
+/**
+ * Archivo de resultados por generación (GA_Results). Cada generación se
+ * agrega como una fila apenas termina, en un buffer que se escribe al
+ * archivo cada P_METRICS_FLUSH_ROWS filas, así una corrida que se cae deja
+ * escritas sus generaciones hasta ahí y no se guarda nada en listas.
+ *
+ * Sin P_RESULTS_NAME el archivo es Tests/GA_Results_<fecha>_<pid>[_n].csv y
+ * se crea con CREATE_NEW, así dos corridas al mismo tiempo nunca escriben en
+ * el mismo archivo.
+ *
+ * Cada fila tiene, además del fitness de la población, lo que costó la
+ * generación: tiempo, evaluaciones, aciertos del cache y tiempo del solver
+ * (los del hilo si tiene contexto propio, ver Metaheuristics.SetThreadContext).
+ *
+ * @author Hans
+ */
+public final class MetricsSink implements AutoCloseable {
+
+    public static final String HEADER = "Generation,Best Fitness,Worst Fitness,Average Fitness,Standard Deviation,"
+            + "Wall Time (ms),Evaluations,Cache Hits,Solver Time (ms)";
+
+    //Fila de Record: GenerationStats (mejor, peor, suma, suma de cuadrados,
+    //tamaño) y lo que costó la generación
+    public static final int WALL_MILLIS = 5;
+    public static final int EVALUATIONS = 6;
+    public static final int CACHE_HITS = 7;
+    public static final int SOLVER_MILLIS = 8;
+    public static final int COLUMNS = 9;
+
+    private final Path path;
+    private FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+    private int generation;
+    private int pendingRows;
+    //Valores al terminar la generación anterior
+    private long lastNanos;
+    private long lastEvaluations;
+    private long lastCacheHits;
+    private long lastSolverNanos;
+
+    private MetricsSink(Path path, FileChannel channel, String algName) {
+        this.path = path;
+        this.channel = channel;
+        Append(algName + "\n" + HEADER + "\n");
+        Flush();
+        Start();
+    }
+
+    /**
+     * Abre el archivo name + ".csv", o uno nuevo con el id de la corrida si
+     * name es null. Si no se puede crear se avisa y el sink no escribe nada.
+     */
+    public static MetricsSink Open(String name, String algName) {
+        try {
+            if (name != null) {
+                Path path = Paths.get(name + ".csv");
+                return new MetricsSink(path, FileChannel.open(path, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), algName);
+            }
+
+            Files.createDirectories(Paths.get("Tests"));
+            String runId = "Tests/GA_Results_" + new SimpleDateFormat("yyyy-MM-dd_HHmmss").format(new Date())
+                    + "_" + ProcessHandle.current().pid();
+            for (int n = 0; ; n++) {
+                Path path = Paths.get(runId + (n == 0 ? "" : "_" + n) + ".csv");
+                try {
+                    return new MetricsSink(path, FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                            StandardOpenOption.WRITE), algName);
+                } catch (FileAlreadyExistsException e) {
+                    //Otra corrida (o isla) ya lo tomó, se prueba el siguiente
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("No se pudo crear el archivo de resultados: " + e.getMessage());
+            return new MetricsSink(null, null, algName);
+        }
+    }
+
+    //Mejor, peor, suma, suma de cuadrados y tamaño de la población
+    public static double[] GenerationStats(Population population) {
+        double bestFitness = Double.NEGATIVE_INFINITY;
+        double worstFitness = Double.POSITIVE_INFINITY;
+        double totalFitness = 0.0;
+        double totalFitnessSquared = 0.0;
+
+        for (Solution solution : population) {
+            double fitness = solution.getObjective(0);
+            bestFitness = Math.max(bestFitness, fitness);
+            worstFitness = Math.min(worstFitness, fitness);
+            totalFitness += fitness;
+            totalFitnessSquared += fitness * fitness;
+        }
+
+        return new double[]{bestFitness, worstFitness, totalFitness, totalFitnessSquared, population.size()};
+    }
+
+    //Nombre del archivo sin .csv, para los archivos relacionados (islas)
+    public String GetName() {
+        if (path == null)
+            return null;
+        String fileName = path.toString();
+        return fileName.substring(0, fileName.length() - ".csv".length());
+    }
+
+    //Empieza a medir la primera generación desde ahora
+    public void Start() {
+        lastNanos = System.nanoTime();
+        lastEvaluations = Metaheuristics.GetEvaluations();
+        lastCacheHits = Metaheuristics.GetCacheHits();
+        lastSolverNanos = Metaheuristics.GetSolverNanos();
+    }
+
+    /**
+     * Agrega la generación a partir de GenerationStats, con lo que costó
+     * desde la anterior (en el contexto del hilo que llama). Devuelve la fila
+     * completa, para quien tenga que juntar varias (GAIslands).
+     */
+    public double[] Record(double[] stats) {
+        long nanos = System.nanoTime();
+        long evaluations = Metaheuristics.GetEvaluations();
+        long cacheHits = Metaheuristics.GetCacheHits();
+        long solverNanos = Metaheuristics.GetSolverNanos();
+
+        double[] row = new double[COLUMNS];
+        System.arraycopy(stats, 0, row, 0, WALL_MILLIS);
+        row[WALL_MILLIS] = (nanos - lastNanos) / 1e6;
+        row[EVALUATIONS] = evaluations - lastEvaluations;
+        row[CACHE_HITS] = cacheHits - lastCacheHits;
+        row[SOLVER_MILLIS] = (solverNanos - lastSolverNanos) / 1e6;
+
+        lastNanos = nanos;
+        lastEvaluations = evaluations;
+        lastCacheHits = cacheHits;
+        lastSolverNanos = solverNanos;
+
+        Write(row);
+        return row;
+    }
+
+    //Agrega una fila ya armada (ver Record)
+    public void Write(double[] row) {
+        double count = row[4];
+        float avgFitness = (float)(row[2] / count);
+        float stdDevFitness = (float)(Math.sqrt((row[3] / count) - (avgFitness * avgFitness)));
+
+        Append(generation++ + "," + row[0] + "," + row[1] + "," + Metaheuristics.round(avgFitness, 1)
+                + "," + String.format(Locale.ROOT, "%.2f", stdDevFitness)
+                + "," + Math.round(row[WALL_MILLIS]) + "," + (long) row[EVALUATIONS]
+                + "," + (long) row[CACHE_HITS] + "," + Math.round(row[SOLVER_MILLIS]) + "\n");
+
+        if (++pendingRows >= Metaheuristics.P_METRICS_FLUSH_ROWS)
+            Flush();
+    }
+
+    //Agrega el mejor tablero y su fitness al final y cierra el archivo
+    public void Close(char[][] board, double fitness) {
+        StringBuilder sb = new StringBuilder("\n");
+        for (char[] row : board)
+            sb.append(row).append('\n');
+        sb.append(fitness);
+        Append(sb.toString());
+        close();
+        if (path != null)
+            System.out.println("Resultados exportados a " + path);
+    }
+
+    @Override
+    public void close() {
+        Flush();
+        if (channel == null)
+            return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("No se pudo cerrar " + path + ": " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    private void Append(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        for (int offset = 0; offset < bytes.length; ) {
+            if (!buffer.hasRemaining())
+                Flush();
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    //Pasa el buffer al archivo; si falla se avisa una vez y se deja de escribir
+    private void Flush() {
+        pendingRows = 0;
+        buffer.flip();
+        try {
+            while (channel != null && buffer.hasRemaining())
+                channel.write(buffer);
+        } catch (IOException e) {
+            System.out.println("No se pudo escribir " + path + ": " + e.getMessage());
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            channel = null;
+        }
+        buffer.clear();
+    }
+}
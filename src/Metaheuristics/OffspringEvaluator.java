@@ -0,0 +1,227 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metaheuristics;
+
+import Metaheuristics.GA.GABoard;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import org.moeaframework.core.Solution;
+
+/**
+ * Evalua en paralelo los hijos de una generación.
+ *
+ * Los operadores ya no resuelven el tablero: devuelven un hijo pendiente con
+ * la solución a usar si el tablero no tiene solución (el padre, o el hijo
+ * pendiente de otro operador). Los algoritmos generan toda la generación en
+ * el hilo principal, así el uso del Random de cada operador no depende de los
+ * hilos, y luego evaluan todos los tableros pendientes juntos con EvaluateAll
+ * (ver Metaheuristics.SolveAll).
+ *
+ * @author Hans
+ */
+public class OffspringEvaluator {
+
+    //Atributos de un hijo pendiente
+    private static final String FALLBACK = "fallback";
+    private static final String EFFECT = "effect";
+
+    //Contador que se incrementa si el hijo tiene solución
+    public enum Effect {
+        CROSSOVER,
+        REPAIRED_CROSSOVER,
+        MUTATION
+    }
+
+    /**
+     * Crea un hijo pendiente de evaluar. El pre-screen se le pasa al
+     * evaluarlo (ver Metaheuristics.SolveAll), en los hilos que lo resuelven.
+     */
+    public static Solution Pending(BoardGenome board, Solution fallback, Effect effect) {
+        Solution solution = new Solution(1, 1);
+        solution.setVariable(0, new GABoard(board));
+        solution.setAttribute(FALLBACK, fallback);
+        solution.setAttribute(EFFECT, effect);
+        return solution;
+    }
+
+    public static boolean IsPending(Solution solution) {
+        return solution.hasAttribute(FALLBACK);
+    }
+
+    /**
+     * Evalua los hijos pendientes y devuelve la generación resuelta, en el
+     * mismo orden. Los hijos sin solución se reemplazan por su fallback y los
+     * que no alcanzan a evaluarse por el límite de evaluaciones se descartan
+     * (quedan como null en la lista devuelta). Con P_SURROGATE los que el
+     * SurrogateModel no elige tampoco se resuelven y cuentan como sin solución.
+     */
+    public static List<Solution> EvaluateAll(List<Solution> offspring) {
+
+        //Tableros a evaluar, siguiendo la cadena de fallbacks de cada hijo
+        ArrayList<Solution> pending = new ArrayList<>();
+        IdentityHashMap<Solution, EvaluationResult> results = new IdentityHashMap<>();
+        for (Solution child : offspring) {
+            for (Solution s = child; IsPending(s); s = Fallback(s)) {
+                if (!results.containsKey(s)) {
+                    results.put(s, null);
+                    pending.add(s);
+                }
+            }
+        }
+
+        ArrayList<BoardGenome> boards = new ArrayList<>(pending.size());
+        for (Solution solution : pending) {
+            boards.add(((GABoard) solution.getVariable(0)).GetGenome());
+        }
+
+        //Con P_SURROGATE el modelo elige qué tableros se resuelven; los demás
+        //quedan como sin solución y el hijo pasa a su fallback
+        double[][] features = null;
+        double[] predicted = null;
+        boolean[] cached = null;
+        boolean[] skipped = new boolean[boards.size()];
+        if (Metaheuristics.P_SURROGATE) {
+            SurrogateModel model = Metaheuristics.GetSurrogate();
+            features = new double[boards.size()][];
+            predicted = new double[boards.size()];
+            cached = new boolean[boards.size()];
+            for (int i = 0; i < boards.size(); i++) {
+                cached[i] = Metaheuristics.IsCached(boards.get(i), false);
+            }
+            //Las características se calculan en paralelo, como los tableros
+            features = Metaheuristics.Features(boards, cached);
+            for (int i = 0; i < boards.size(); i++) {
+                if (!cached[i])
+                    predicted[i] = model.Predict(features[i]);
+            }
+            if (model.IsReady())
+                Select(cached, predicted, skipped, model.GetRandom());
+        }
+
+        ArrayList<BoardGenome> selected = new ArrayList<>(boards.size());
+        for (int i = 0; i < boards.size(); i++) {
+            if (!skipped[i])
+                selected.add(boards.get(i));
+        }
+
+        //No pasarse de MAXEVALUATIONS
+        List<EvaluationResult> solved = Metaheuristics.SolveAll(selected, false, Metaheuristics.GetRemainingEvaluations());
+        ArrayList<EvaluationResult> evaluated = new ArrayList<>(boards.size());
+        for (int i = 0, k = 0; i < boards.size(); i++) {
+            evaluated.add(skipped[i] ? EvaluationResult.UNSOLVED : solved.get(k++));
+        }
+
+        if (Metaheuristics.P_SURROGATE)
+            Learn(features, predicted, cached, skipped, evaluated);
+
+        //Los resultados se aplican en el hilo principal y en orden
+        for (int i = 0; i < pending.size(); i++) {
+            Solution solution = pending.get(i);
+            EvaluationResult result = evaluated.get(i);
+            if (result == null)
+                continue;
+            results.put(solution, result);
+            if (result.solved) {
+                solution.setObjective(0, result.pushes);
+                CountEffect((Effect) solution.getAttribute(EFFECT));
+            }
+        }
+
+        ArrayList<Solution> resolved = new ArrayList<>(offspring.size());
+        for (Solution child : offspring) {
+            resolved.add(Resolve(child, results));
+        }
+
+        for (Solution s : pending) {
+            if (results.get(s) != null && results.get(s).solved) {
+                s.removeAttribute(FALLBACK);
+                s.removeAttribute(EFFECT);
+            }
+        }
+
+        return resolved;
+    }
+
+    /**
+     * Marca en skipped los tableros que no se resuelven: se quedan los que ya
+     * están en el cache (no gastan evaluaciones), la fracción P_SURROGATE_TOP
+     * del resto con mejor predicción y, de los demás, cada uno con
+     * probabilidad P_SURROGATE_EXPLORE, para que el modelo siga viendo
+     * tableros que hoy predice mal.
+     */
+    private static void Select(boolean[] cached, double[] predicted, boolean[] skipped, Random random) {
+        if (Metaheuristics.P_SURROGATE_TOP >= 1)
+            return;
+
+        ArrayList<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < cached.length; i++) {
+            if (!cached[i])
+                candidates.add(i);
+        }
+        //Orden estable: con la misma predicción se respeta el de la generación
+        candidates.sort((a, b) -> Double.compare(predicted[b], predicted[a]));
+
+        int top = (int) Math.ceil(Metaheuristics.P_SURROGATE_TOP * candidates.size());
+        int count = 0;
+        for (int k = top; k < candidates.size(); k++) {
+            if (random.nextDouble() >= Metaheuristics.P_SURROGATE_EXPLORE) {
+                skipped[candidates.get(k)] = true;
+                count++;
+            }
+        }
+        MetricsRegistry.Add(MetricsRegistry.Counter.SURROGATE_SKIPPED, count);
+    }
+
+    /**
+     * Entrena el modelo con los tableros que se acaban de resolver (los del
+     * cache ya los vio) y le anota lo que predijo antes de verlos, para la
+     * correlación que muestra Metaheuristics.PrintStatistics.
+     */
+    private static void Learn(double[][] features, double[] predicted, boolean[] cached, boolean[] skipped,
+            List<EvaluationResult> evaluated) {
+        SurrogateModel model = Metaheuristics.GetSurrogate();
+        for (int i = 0; i < evaluated.size(); i++) {
+            EvaluationResult result = evaluated.get(i);
+            if (!skipped[i] && !cached[i] && result != null && result.solved && features[i] != null) {
+                model.Check(predicted[i], result.pushes);
+                model.Train(features[i], result.pushes);
+            }
+        }
+    }
+
+    private static Solution Resolve(Solution child, IdentityHashMap<Solution, EvaluationResult> results) {
+        Solution s = child;
+        while (IsPending(s)) {
+            EvaluationResult result = results.get(s);
+            if (result == null)
+                return null;
+            if (result.solved)
+                return s;
+            s = Fallback(s);
+        }
+        return s;
+    }
+
+    private static Solution Fallback(Solution solution) {
+        return (Solution) solution.getAttribute(FALLBACK);
+    }
+
+    private static void CountEffect(Effect effect) {
+        switch (effect) {
+            case REPAIRED_CROSSOVER:
+                MetricsRegistry.Count(MetricsRegistry.Counter.EFFECTIVE_REPAIR);
+                MetricsRegistry.Count(MetricsRegistry.Counter.EFFECTIVE_CROSSOVER);
+                break;
+            case CROSSOVER:
+                MetricsRegistry.Count(MetricsRegistry.Counter.EFFECTIVE_CROSSOVER);
+                break;
+            case MUTATION:
+                MetricsRegistry.Count(MetricsRegistry.Counter.EFFECTIVE_MUTATION);
+                break;
+        }
+    }
+}
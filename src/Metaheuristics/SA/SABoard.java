@@ -4,7 +4,7 @@
  */
 package Metaheuristics.SA;
 
-import SokoGenerator.GeneratorUtils;
+import Metaheuristics.BoardGenome;
 
 /**
  *
@@ -14,7 +14,7 @@ public class SABoard {
 
  
     public int fitness;
-    public char[][] board;
+    public BoardGenome board;
     
     public SABoard(){
         this.fitness = -1;
@@ -22,7 +22,7 @@ public class SABoard {
     
     public SABoard Copy(SABoard toCopy) {
         
-        toCopy.board = GeneratorUtils.CloneCharArray(this.board);
+        toCopy.board = this.board.Copy();
         toCopy.fitness = this.fitness;
         return toCopy;
     }
@@ -30,11 +30,6 @@ public class SABoard {
     void Show() {
         System.out.println("Fitness: " + fitness);
         System.out.println("Board:");
-        for (char[] row : board) {
-            for (char cell : row) {
-                System.out.print(cell);
-            }
-            System.out.println();
-        }
+        System.out.print(board);
     }
 }
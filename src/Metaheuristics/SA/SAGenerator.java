@@ -4,10 +4,17 @@
  */
 package Metaheuristics.SA;
 
+import Metaheuristics.BoardGenome;
+import Metaheuristics.EvaluationResult;
+import Metaheuristics.GA.GABoard;
+import Metaheuristics.JfrEvents;
 import Metaheuristics.Metaheuristics;
+import Metaheuristics.MetricsRegistry;
 import SokoGenerator.GeneratorUtils;
-import SokoGenerator.Tree.Pair;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Random;
 
 /**
  *
@@ -18,41 +25,75 @@ public class SAGenerator {
     private final double initialTemperature;
     private final double coolingRate;
     
-    Pair selectedPair;
-    Pair emptySpace;
     SABoard bestSolution;
+    private Random random;
+    //Mutación que aplicó la última llamada a Mutate (para JfrEvents.Operator)
+    private String lastKind;
     public SAGenerator(double initialTemperature, double coolingRate){
         this.initialTemperature = initialTemperature;
         this.coolingRate = coolingRate;
         this.bestSolution = new SABoard();
     }
     
+    //Cadena a temperatura fija con su propio Random (réplicas de SATempering)
+    SAGenerator(Random random){
+        this(0, 0);
+        this.random = random;
+    }
+    
     public void Start(){
         
         System.out.println("Running SAGenerator");
         Metaheuristics.Init();
+        random = Metaheuristics.NewStream(Metaheuristics.random);
         
         SABoard currentSolution = GenerateInitialBoard();
         
         currentSolution.Copy(bestSolution);
 
         double temperature = initialTemperature;
+        int neighbourCount = Math.max(1, Metaheuristics.P_SA_NEIGHBOURS);
+        ArrayList<SABoard> neighbours = new ArrayList<>(neighbourCount);
+        ArrayList<BoardGenome> boards = new ArrayList<>(neighbourCount);
         Metaheuristics.S_TIME = new Date().getTime(); 
         //while (temperature > 1) 
-        while (!Metaheuristics.STOP) {
-              
-            SABoard newSolution = Mutate(currentSolution);
-            int newScore = currentSolution.fitness;
-
-            if (acceptanceProbability(currentSolution.fitness, newScore, temperature) > Metaheuristics.random.nextDouble()) {
-                currentSolution = newSolution;
+        while (!Metaheuristics.IsStopped()) {
+            
+            //Todos los vecinos salen del mismo estado y se evaluan juntos
+            neighbours.clear();
+            boards.clear();
+            for (int k = 0; k < neighbourCount; k++) {
+                SABoard neighbour = Mutate(currentSolution);
+                neighbours.add(neighbour);
+                boards.add(neighbour.board);
             }
+            List<EvaluationResult> results = Metaheuristics.SolveAll(boards, false, Metaheuristics.GetRemainingEvaluations());
+            
+            //Metropolis en el orden en que se generaron: se toma el primero que
+            //se acepta, como si se hubieran probado uno por uno. La temperatura
+            //baja una vez por vecino, como en el SA de un vecino por paso
+            for (int k = 0; k < neighbourCount; k++) {
+                SABoard newSolution = neighbours.get(k);
+                EvaluationResult result = results.get(k);
+                double stepTemperature = temperature;
+                temperature *= 1 - coolingRate;
+                //Sin solución o sin evaluaciones: se queda en el estado actual
+                if (result == null || !result.solved)
+                    continue;
+                
+                MetricsRegistry.Count(MetricsRegistry.Counter.EFFECTIVE_MUTATION);
+                newSolution.fitness = result.pushes;
+                int newScore = newSolution.fitness;
 
-            if (currentSolution.fitness > bestSolution.fitness) {
-                currentSolution.Copy(bestSolution);
+                if (acceptanceProbability(currentSolution.fitness, newScore, stepTemperature) > random.nextDouble()) {
+                    currentSolution = newSolution;
+                    if (currentSolution.fitness > bestSolution.fitness) {
+                        currentSolution.Copy(bestSolution);
+                    }
+                    temperature *= Math.pow(1 - coolingRate, neighbourCount - k - 1);
+                    break;
+                }
             }
-
-            temperature *= 1 - coolingRate;
             //System.out.println("Temperature: " + temperature);
         }
         Metaheuristics.E_TIME = new Date().getTime();
@@ -65,51 +106,71 @@ public class SAGenerator {
     
     public void ShowStadistics(){
         
-        Metaheuristics.BESTBOARD = bestSolution.board;
+        Metaheuristics.BESTBOARD = bestSolution.board.ToChars();
         Metaheuristics.BESTFITNESS = bestSolution.fitness;
         
         System.out.println(Metaheuristics.I_ALG_NAME + "," + initialTemperature + "," + coolingRate+ ","
                 + Metaheuristics.BESTFITNESS+ ","+ Metaheuristics.TOTALTIME);
     }
     
+    /**
+     * Un paso de Metropolis a temperatura fija: genera un vecino, lo resuelve
+     * y lo devuelve si se acepta. Devuelve null si no tiene solución o se
+     * rechaza.
+     */
+    SABoard Step(SABoard current, double temperature){
+        SABoard newSolution = Mutate(current);
+        EvaluationResult result = Metaheuristics.Solve(newSolution.board, false);
+        if (!result.solved)
+            return null;
+        
+        MetricsRegistry.Count(MetricsRegistry.Counter.EFFECTIVE_MUTATION);
+        newSolution.fitness = result.pushes;
+        if (acceptanceProbability(current.fitness, newSolution.fitness, temperature) > random.nextDouble())
+            return newSolution;
+        return null;
+    }
+    
     private double acceptanceProbability(int currentScore, int newScore, double temperature) {
         if (newScore > currentScore) {
             return 1.0;
         }
-        return Math.exp((currentScore - newScore) / temperature);
+        //Se maximiza: un vecino peor se acepta con exp(-diferencia / T)
+        return Math.exp((newScore - currentScore) / temperature);
     }
     
     public SABoard GenerateInitialBoard(){
         
         SABoard newBoard = new SABoard();
-        de.sokoban_online.jsoko.leveldata.solutions.Solution jsokoSolution = null;
-        Pair pair;
+        BoardGenome baseBoard = BoardGenome.FromChars(Metaheuristics.P_BASE_BOARD);
+        EvaluationResult result;
         do{
             //System.out.println("->Probar");
-            newBoard.board = GeneratorUtils.CloneCharArray(Metaheuristics.P_BASE_BOARD);
-
-            pair = GeneratorUtils.GetEmptySpacePair(newBoard.board);
-            newBoard.board[pair.i][pair.j] = '$';
-
-            pair = GeneratorUtils.GetEmptySpacePair(newBoard.board);
-            newBoard.board[pair.i][pair.j] = '.';
+            newBoard.board = GABoard.InitialBoard(baseBoard, random);
 
-            pair = GeneratorUtils.GetEmptySpacePair(newBoard.board);
-            newBoard.board[pair.i][pair.j] = '@';
-
-            jsokoSolution = Metaheuristics.Solve(newBoard.board, false, 1); 
-            newBoard.fitness = Metaheuristics.application.movesHistory.getPushesCount();
-        }while(jsokoSolution== null);
+            result = Metaheuristics.Solve(newBoard.board, false); 
+            newBoard.fitness = result.pushes;
+        }while(!result.solved);
         
         return newBoard;
     }
     
     public SABoard Mutate(SABoard toMutate){
+        JfrEvents.Operator event = new JfrEvents.Operator();
+        event.begin();
+        long start = System.nanoTime();
+        SABoard mutated = RandomMutation(toMutate);
+        MetricsRegistry.Record(MetricsRegistry.Timer.MUTATION, System.nanoTime() - start);
+        event.Commit("SAGenerator", lastKind, mutated.board);
+        return mutated;
+    }
+    
+    private SABoard RandomMutation(SABoard toMutate){
                
         //TO DO mutate mutated
         // Genera un número aleatorio entre 0 y 99
-        int percent = Metaheuristics.random.nextInt(100);
-        int boxCount = GeneratorUtils.CountCharacters(1, toMutate.board);
+        int percent = random.nextInt(100);
+        int boxCount = toMutate.board.Count(BoardGenome.BOX);
         
         if(boxCount > 1){
             if(boxCount == Metaheuristics.P_MAX_BOXES){
@@ -142,136 +203,87 @@ public class SAGenerator {
     // Simula la función MoveMutation
     public SABoard MoveMutation(SABoard toMutate) {
         //return "MoveMutation";
-        Metaheuristics.R_TOTAL_MUTATION++;
-        Metaheuristics.R_TOTAL_MOVE_MUTATION++;
+        MetricsRegistry.Count(MetricsRegistry.Counter.MUTATION);
+        MetricsRegistry.Count(MetricsRegistry.Counter.MOVE_MUTATION);
+        lastKind = "MoveMutation";
         
         //Clone current board state
         SABoard mutated = new SABoard();
         toMutate.Copy(mutated);
         
         //Player : 0 , box: 1 , goal: 2
-        var randomElementIndex = Metaheuristics.random.nextInt(3);
-        int max = GeneratorUtils.CountCharacters(randomElementIndex, mutated.board);
-        selectedPair = GeneratorUtils.FindCharacterPairIndexBased(mutated.board, randomElementIndex,
-                Metaheuristics.random.nextInt(max));
+        var randomElementIndex = random.nextInt(3);
+        byte layer = BoardGenome.Layer(randomElementIndex);
+        int max = mutated.board.Count(layer);
+        int selected = mutated.board.Find(layer, random.nextInt(max));
         
         //Get a empty space
-        emptySpace = GeneratorUtils.GetEmptySpacePair(mutated.board);
+        int emptySpace = layer == BoardGenome.BOX ? GeneratorUtils.GetBoxSpace(mutated.board, random)
+                                                  : GeneratorUtils.GetEmptySpace(mutated.board, random);
         
-        //Replace
-        if(randomElementIndex == 0){
-            if(mutated.board[selectedPair.i][selectedPair.j] == '+')
-                mutated.board[selectedPair.i][selectedPair.j] = '.';
-            else
-                mutated.board[selectedPair.i][selectedPair.j] = ' ';
-                
-            mutated.board[emptySpace.i][emptySpace.j] = '@';
-        }
-        
-        
-        else if(randomElementIndex == 1){
-            if(mutated.board[selectedPair.i][selectedPair.j] == '*')
-                mutated.board[selectedPair.i][selectedPair.j] = '.';
-            else
-                mutated.board[selectedPair.i][selectedPair.j] = ' ';
-                
-            mutated.board[emptySpace.i][emptySpace.j] = '$';
-        }
-        
-        else if(randomElementIndex == 2){
-            if(mutated.board[selectedPair.i][selectedPair.j] == '*')
-                mutated.board[selectedPair.i][selectedPair.j] = '$';
-            else if(mutated.board[selectedPair.i][selectedPair.j] == '+')
-                mutated.board[selectedPair.i][selectedPair.j] = '@';
-            else
-                mutated.board[selectedPair.i][selectedPair.j] = ' ';
-                
-            mutated.board[emptySpace.i][emptySpace.j] = '.';
-        }
+        //Sin casilla libre (o solo casillas muertas para una caja) queda igual
+        if (emptySpace < 0)
+            return mutated;
         
+        //Replace: la casilla elegida pierde la capa ('+' queda '.', '*' queda '.' o '$')
+        mutated.board.Remove(selected, layer);
+        mutated.board.Add(emptySpace, layer);
         
-        int boxCount = GeneratorUtils.CountCharacters(1, mutated.board);
-        if(Metaheuristics.Solve(mutated.board, false, boxCount) != null){
-            Metaheuristics.R_TOTAL_EFFECTIVE_MUTATION++;
-            mutated.fitness = Metaheuristics.application.movesHistory.getPushesCount();
-            return mutated;  
-        }
-
-        mutated = null;
-        
-        return toMutate;
+        return mutated;
     }
 
     public SABoard AddMutation(SABoard toMutate) {
         //return "MoveMutation";
-        Metaheuristics.R_TOTAL_MUTATION++;
-        Metaheuristics.R_TOTAL_ADD_MUTATION++;
+        MetricsRegistry.Count(MetricsRegistry.Counter.MUTATION);
+        MetricsRegistry.Count(MetricsRegistry.Counter.ADD_MUTATION);
+        lastKind = "AddMutation";
         
         //Clone current board state
         SABoard mutated = new SABoard();
         toMutate.Copy(mutated);
         
+        //Hacen falta una casilla para la caja y otra para la meta
+        if (GeneratorUtils.CountBoxSpaces(mutated.board) == 0 || mutated.board.CountEmpty() < 2)
+            return mutated;
+        
         //Get two empty spaces
-        Pair emptySpace_1;
-        Pair emptySpace_2;
+        int emptySpace_1;
+        int emptySpace_2;
         do{
-        emptySpace_1 = GeneratorUtils.GetEmptySpacePair(mutated.board);
-        emptySpace_2 = GeneratorUtils.GetEmptySpacePair(mutated.board);
+        emptySpace_1 = GeneratorUtils.GetBoxSpace(mutated.board, random);
+        emptySpace_2 = GeneratorUtils.GetEmptySpace(mutated.board, random);
         
-        }while(emptySpace_1.IsEquals(emptySpace_2));
+        }while(emptySpace_1 == emptySpace_2);
         
-        mutated.board[emptySpace_1.i][emptySpace_1.j] = '$';
-        mutated.board[emptySpace_2.i][emptySpace_2.j] = '.';
+        mutated.board.Add(emptySpace_1, BoardGenome.BOX);
+        mutated.board.Add(emptySpace_2, BoardGenome.GOAL);
     
-        int boxCount = GeneratorUtils.CountCharacters(1, mutated.board);
-        if(Metaheuristics.Solve(mutated.board, false, boxCount) != null){
-            Metaheuristics.R_TOTAL_EFFECTIVE_MUTATION++;
-            mutated.fitness = Metaheuristics.application.movesHistory.getPushesCount();
-            return mutated;  
-        }
-        
-        return toMutate;
+        return mutated;
     }
     
      public SABoard RemoveMutation(SABoard toMutate) {
         //return "MoveMutation";
-        Metaheuristics.R_TOTAL_MUTATION++;
-        Metaheuristics.R_TOTAL_REMOVE_MUTATION++;
+        MetricsRegistry.Count(MetricsRegistry.Counter.MUTATION);
+        MetricsRegistry.Count(MetricsRegistry.Counter.REMOVE_MUTATION);
+        lastKind = "RemoveMutation";
         
         //Clone current board state
         SABoard mutated = new SABoard();
         toMutate.Copy(mutated);
         
         //Player : 0 , box: 1 , goal: 2
-        int max = GeneratorUtils.CountCharacters(1, mutated.board);
-        Pair box = GeneratorUtils.FindCharacterPairIndexBased(mutated.board, 1,
-                Metaheuristics.random.nextInt(max));
-        max = GeneratorUtils.CountCharacters(2, mutated.board);
-        Pair goal = GeneratorUtils.FindCharacterPairIndexBased(mutated.board, 2,
-                Metaheuristics.random.nextInt(max));
+        int max = mutated.board.Count(BoardGenome.BOX);
+        int box = mutated.board.Find(BoardGenome.BOX, random.nextInt(max));
+        max = mutated.board.Count(BoardGenome.GOAL);
+        int goal = mutated.board.Find(BoardGenome.GOAL, random.nextInt(max));
         
         //Remove Box
-        if(mutated.board[box.i][box.j]=='*')
-            mutated.board[box.i][box.j] ='.';
-        else
-            mutated.board[box.i][box.j] =' ';
+        mutated.board.Remove(box, BoardGenome.BOX);
         
         //Remove goal
-        if(mutated.board[goal.i][goal.j]=='*')
-            mutated.board[goal.i][goal.j] ='$';
-        else if(mutated.board[goal.i][goal.j]=='+')
-            mutated.board[goal.i][goal.j] ='@';
-        else
-            mutated.board[goal.i][goal.j] =' ';
-        
-        int boxCount = GeneratorUtils.CountCharacters(1, mutated.board);
-        if(Metaheuristics.Solve(mutated.board, false, boxCount) != null){
-            Metaheuristics.R_TOTAL_EFFECTIVE_MUTATION++;
-            mutated.fitness = Metaheuristics.application.movesHistory.getPushesCount();
-            return mutated;  
-        }
+        mutated.board.Remove(goal, BoardGenome.GOAL);
         
-        return toMutate;
+        return mutated;
     }
     
 }
@@ -0,0 +1,209 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metaheuristics.SA;
+
+import Metaheuristics.EvaluationBudget;
+import Metaheuristics.FitnessCache;
+import Metaheuristics.Metaheuristics;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+/**
+ * SA con réplicas (parallel tempering).
+ *
+ * P_REPLICAS cadenas de SAGenerator corren a temperatura fija, espaciadas
+ * geométricamente entre P_INITIAL_TEMPERATURE (réplica 0) y
+ * P_MIN_TEMPERATURE (la última), sin enfriamiento, así no depende de
+ * P_COOLING_RATE. Cada réplica corre en su propio hilo con su propio Random,
+ * cache, contexto de solver y parte de MAXEVALUATIONS, como las islas de
+ * GAIslands. Cada P_SWAP_INTERVAL pasos las réplicas se esperan y se
+ * intercambian los estados de réplicas vecinas con probabilidad
+ * min(1, exp((f_fría - f_caliente) * (1/T_caliente - 1/T_fría))): los pares
+ * (0,1), (2,3)... en las rondas pares y (1,2), (3,4)... en las impares. Los
+ * intercambios los hace un solo hilo con su propio Random, así una corrida
+ * con la misma semilla siempre da los mismos tableros.
+ *
+ * @author Hans
+ */
+public class SATempering {
+
+    private Replica[] replicas;
+    private Random random;
+    private CyclicBarrier barrier;
+    private int round;
+    //Lo escribe Exchange, los hilos lo leen después de la barrera
+    private boolean finished;
+
+    public void Start(){
+        System.out.println("Running SATempering");
+        Metaheuristics.Init();
+
+        int count = Math.max(1, Metaheuristics.P_REPLICAS);
+        replicas = new Replica[count];
+        for (int i = 0; i < count; i++) {
+            //El resto de la división se reparte entre las primeras réplicas
+            int share = Metaheuristics.MAXEVALUATIONS / count + (i < Metaheuristics.MAXEVALUATIONS % count ? 1 : 0);
+            replicas[i] = new Replica(i, Temperature(i, count),
+                    Metaheuristics.NewStream(Metaheuristics.random), new EvaluationBudget(share));
+        }
+        random = Metaheuristics.NewStream(Metaheuristics.random);
+        barrier = new CyclicBarrier(count, this::Exchange);
+
+        Metaheuristics.S_TIME = new Date().getTime();
+        Thread[] threads = new Thread[count];
+        for (int i = 0; i < count; i++) {
+            threads[i] = new Thread(replicas[i], "SATempering.Replica-" + i);
+            threads[i].start();
+        }
+
+        try {
+            for (Thread thread : threads)
+                thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        Metaheuristics.E_TIME = new Date().getTime();
+        Metaheuristics.TOTALTIME += Metaheuristics.E_TIME-Metaheuristics.S_TIME;
+
+        for (Replica replica : replicas) {
+            if (replica.error != null)
+                throw new IllegalStateException("Replica " + replica.id, replica.error);
+        }
+
+        ShowStadistics();
+    }
+
+    private static double Temperature(int replica, int count) {
+        if (count == 1)
+            return Metaheuristics.P_INITIAL_TEMPERATURE;
+        double ratio = Metaheuristics.P_MIN_TEMPERATURE / Metaheuristics.P_INITIAL_TEMPERATURE;
+        return Metaheuristics.P_INITIAL_TEMPERATURE * Math.pow(ratio, replica / (count - 1.0));
+    }
+
+    private void ShowStadistics(){
+        SABoard bestSolution = null;
+        for (Replica replica : replicas) {
+            System.out.println(String.format("Replica %d: T=%.2f, best=%d, acceptance=%d/%d (%.1f%%), swaps=%d/%d (%.1f%%)",
+                    replica.id, replica.temperature, replica.best.fitness,
+                    replica.accepted, replica.proposals, Rate(replica.accepted, replica.proposals),
+                    replica.swaps, replica.swapAttempts, Rate(replica.swaps, replica.swapAttempts)));
+            if (bestSolution == null || replica.best.fitness > bestSolution.fitness)
+                bestSolution = replica.best;
+        }
+
+        bestSolution.Show();
+        Metaheuristics.BESTBOARD = bestSolution.board.ToChars();
+        Metaheuristics.BESTFITNESS = bestSolution.fitness;
+
+        System.out.println(Metaheuristics.I_ALG_NAME + "," + replicas.length + "," + Metaheuristics.P_INITIAL_TEMPERATURE
+                + "," + Metaheuristics.P_MIN_TEMPERATURE + "," + Metaheuristics.BESTFITNESS + "," + Metaheuristics.TOTALTIME);
+    }
+
+    private static double Rate(int count, int total) {
+        return total == 0 ? 0 : 100.0 * count / total;
+    }
+
+    //Acción de la barrera: corre en un solo hilo, con todas las réplicas detenidas
+    private void Exchange() {
+        finished = true;
+        for (Replica replica : replicas) {
+            if (replica.error == null && !replica.budget.IsExhausted())
+                finished = false;
+        }
+        if (finished)
+            return;
+
+        for (int i = round % 2; i + 1 < replicas.length; i += 2)
+            Swap(replicas[i], replicas[i + 1]);
+        round++;
+    }
+
+    private void Swap(Replica hot, Replica cold) {
+        if (hot.current == null || cold.current == null)
+            return;
+
+        //Cuenta en las dos réplicas, así la más fría también muestra sus intercambios
+        hot.swapAttempts++;
+        cold.swapAttempts++;
+        double delta = (cold.current.fitness - hot.current.fitness) * (1 / hot.temperature - 1 / cold.temperature);
+        if (delta >= 0 || Math.exp(delta) > random.nextDouble()) {
+            SABoard state = hot.current;
+            hot.current = cold.current;
+            cold.current = state;
+            hot.swaps++;
+            cold.swaps++;
+        }
+    }
+
+    private class Replica implements Runnable {
+        final int id;
+        final double temperature;
+        final EvaluationBudget budget;
+        final FitnessCache cache = new FitnessCache(Metaheuristics.P_FITNESS_CACHE_SIZE);
+        final SAGenerator chain;
+        SABoard current;
+        final SABoard best = new SABoard();
+        //Pasos y aceptados; intercambios con cualquiera de sus dos vecinas
+        int proposals;
+        int accepted;
+        int swapAttempts;
+        int swaps;
+        Throwable error;
+
+        Replica(int id, double temperature, Random random, EvaluationBudget budget) {
+            this.id = id;
+            this.temperature = temperature;
+            this.budget = budget;
+            this.chain = new SAGenerator(random);
+        }
+
+        @Override
+        public void run() {
+            Metaheuristics.SetThreadContext(budget, cache);
+            try {
+                //Una réplica que falla sigue llegando a la barrera, así las
+                //demás no se quedan esperándola
+                while (!finished) {
+                    if (error == null)
+                        Run();
+                    barrier.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = e;
+            } catch (BrokenBarrierException e) {
+                error = e;
+            } finally {
+                Metaheuristics.SetThreadContext(null, null);
+            }
+        }
+
+        private void Run() {
+            try {
+                if (current == null) {
+                    current = chain.GenerateInitialBoard();
+                    current.Copy(best);
+                }
+                int steps = Math.max(1, Metaheuristics.P_SWAP_INTERVAL);
+                for (int step = 0; step < steps && !Metaheuristics.IsStopped(); step++) {
+                    proposals++;
+                    SABoard next = chain.Step(current, temperature);
+                    if (next == null)
+                        continue;
+
+                    accepted++;
+                    current = next;
+                    if (current.fitness > best.fitness)
+                        current.Copy(best);
+                }
+            } catch (RuntimeException | Error e) {
+                error = e;
+            }
+        }
+    }
+}
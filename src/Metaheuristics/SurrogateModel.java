@@ -0,0 +1,191 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metaheuristics;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Modelo barato del fitness para elegir qué hijos vale la pena resolver (ver
+ * OffspringEvaluator.EvaluateAll). Es una regresión lineal (ridge) sobre las
+ * características de BoardEvaluator.Features, que se entrena en línea con
+ * los empujes de cada tablero resuelto: solo se acumulan X'X y X'y, así
+ * entrenar es O(FEATURES²) y el modelo se ajusta de nuevo solo cuando se
+ * pide una predicción después de entrenar.
+ *
+ * Cada hilo con contexto propio (islas, réplicas) tiene su modelo, con su
+ * propio Random para la parte de exploración.
+ *
+ * @author Hans
+ */
+public final class SurrogateModel {
+    //1, cota inferior, Manhattan, cajas, corrales, influencia
+    public static final int FEATURES = 6;
+    //Regularización, para que el sistema tenga solución con pocas muestras
+    private static final double RIDGE = 1e-3;
+
+    private final Random random;
+    private final double[][] xtx = new double[FEATURES][FEATURES];
+    private final double[] xty = new double[FEATURES];
+    private double[] weights = new double[FEATURES];
+    private boolean fitted = true;
+    private int samples;
+    //Lo que predijo el modelo para cada tablero resuelto, antes de entrenar
+    //con él, y sus empujes reales (ver GetCorrelation)
+    private double[] predicted = new double[64];
+    private double[] actual = new double[64];
+    private int checked;
+
+    public SurrogateModel(Random random) {
+        this.random = random;
+    }
+
+    public Random GetRandom() {
+        return random;
+    }
+
+    public int GetSamples() {
+        return samples;
+    }
+
+    public boolean IsReady() {
+        return samples >= Metaheuristics.P_SURROGATE_MIN_SAMPLES;
+    }
+
+    //Agrega un tablero resuelto con sus empujes
+    public void Train(double[] features, int pushes) {
+        if (features == null)
+            return;
+
+        for (int a = 0; a < FEATURES; a++) {
+            for (int b = 0; b < FEATURES; b++)
+                xtx[a][b] += features[a] * features[b];
+            xty[a] += features[a] * pushes;
+        }
+        samples++;
+        fitted = false;
+    }
+
+    //Anota una predicción hecha antes de ver el tablero resuelto
+    public void Check(double prediction, int pushes) {
+        if (checked == predicted.length) {
+            predicted = Arrays.copyOf(predicted, checked * 2);
+            actual = Arrays.copyOf(actual, checked * 2);
+        }
+        predicted[checked] = prediction;
+        actual[checked] = pushes;
+        checked++;
+    }
+
+    /**
+     * Correlación de rangos entre todo lo anotado con Check y los empujes
+     * reales: cuanto más cerca de 1, más se puede confiar en el modelo para
+     * descartar hijos.
+     */
+    public double GetCorrelation() {
+        return RankCorrelation(predicted, actual, checked);
+    }
+
+    //Empujes estimados; -infinito si el tablero no es válido (features null)
+    public double Predict(double[] features) {
+        if (features == null)
+            return Double.NEGATIVE_INFINITY;
+        if (!fitted)
+            Fit();
+
+        double prediction = 0;
+        for (int a = 0; a < FEATURES; a++)
+            prediction += weights[a] * features[a];
+        return prediction;
+    }
+
+    //Resuelve (X'X + RIDGE * I) w = X'y por eliminación gaussiana con pivoteo parcial
+    private void Fit() {
+        double[][] m = new double[FEATURES][FEATURES + 1];
+        for (int a = 0; a < FEATURES; a++) {
+            System.arraycopy(xtx[a], 0, m[a], 0, FEATURES);
+            m[a][a] += RIDGE;
+            m[a][FEATURES] = xty[a];
+        }
+
+        for (int col = 0; col < FEATURES; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < FEATURES; row++) {
+                if (Math.abs(m[row][col]) > Math.abs(m[pivot][col]))
+                    pivot = row;
+            }
+            double[] swap = m[col];
+            m[col] = m[pivot];
+            m[pivot] = swap;
+            if (m[col][col] == 0)
+                continue;
+
+            for (int row = col + 1; row < FEATURES; row++) {
+                double factor = m[row][col] / m[col][col];
+                for (int k = col; k <= FEATURES; k++)
+                    m[row][k] -= factor * m[col][k];
+            }
+        }
+
+        double[] w = new double[FEATURES];
+        for (int row = FEATURES - 1; row >= 0; row--) {
+            double sum = m[row][FEATURES];
+            for (int k = row + 1; k < FEATURES; k++)
+                sum -= m[row][k] * w[k];
+            w[row] = m[row][row] == 0 ? 0 : sum / m[row][row];
+        }
+        weights = w;
+        fitted = true;
+    }
+
+    /**
+     * Correlación de Spearman entre las predicciones y los valores reales
+     * (los empates toman el rango promedio). NaN con menos de dos pares o si
+     * alguno de los dos es constante.
+     */
+    public static double RankCorrelation(double[] predicted, double[] actual, int count) {
+        if (count < 2)
+            return Double.NaN;
+
+        double[] x = Ranks(predicted, count);
+        double[] y = Ranks(actual, count);
+        double meanX = 0, meanY = 0;
+        for (int k = 0; k < count; k++) {
+            meanX += x[k];
+            meanY += y[k];
+        }
+        meanX /= count;
+        meanY /= count;
+
+        double sxy = 0, sxx = 0, syy = 0;
+        for (int k = 0; k < count; k++) {
+            sxy += (x[k] - meanX) * (y[k] - meanY);
+            sxx += (x[k] - meanX) * (x[k] - meanX);
+            syy += (y[k] - meanY) * (y[k] - meanY);
+        }
+        if (sxx == 0 || syy == 0)
+            return Double.NaN;
+        return sxy / Math.sqrt(sxx * syy);
+    }
+
+    private static double[] Ranks(double[] values, int count) {
+        Integer[] order = new Integer[count];
+        for (int k = 0; k < count; k++)
+            order[k] = k;
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+
+        double[] ranks = new double[count];
+        for (int start = 0; start < count; ) {
+            int end = start + 1;
+            while (end < count && values[order[end]] == values[order[start]])
+                end++;
+            double rank = (start + end - 1) / 2.0;
+            for (int k = start; k < end; k++)
+                ranks[order[k]] = rank;
+            start = end;
+        }
+        return ranks;
+    }
+}
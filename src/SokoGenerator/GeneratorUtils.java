@@ -4,11 +4,12 @@
  */
 package SokoGenerator;
 
+import Metaheuristics.BoardGenome;
 import Metaheuristics.GA.GAProblem;
 import Metaheuristics.Metaheuristics;
+import Metaheuristics.MetricsRegistry;
 import SokoGenerator.Tree.Pair;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Random;
 
 /**
  *
@@ -16,10 +17,6 @@ import java.util.Arrays;
  */
 public class GeneratorUtils {
     
-    private static final ArrayList<Character> playerChars = new ArrayList<>(Arrays.asList('@', '+'));
-    private static final ArrayList<Character> boxChars = new ArrayList<>(Arrays.asList('$', '*'));
-    private static final ArrayList<Character> goalChars = new ArrayList<>(Arrays.asList('*', '.', '+'));
-
     private static int length = 0;
 
     public static String ConvertCharArrayToString(char[][] charArray) {
@@ -45,7 +42,8 @@ public class GeneratorUtils {
     }
     
     public static char[][] CloneCharArray(char[][] originalArray) {
-        Metaheuristics.COPY++;
+        MetricsRegistry.Count(MetricsRegistry.Counter.COPY);
+        long start = System.nanoTime();
         
         length = originalArray.length;
         char[][] clonedArray  = new char[length][originalArray[0].length];
@@ -53,6 +51,7 @@ public class GeneratorUtils {
         for (int i = 0; i < length; i++) {
             clonedArray[i] = originalArray[i].clone();
         }
+        MetricsRegistry.Record(MetricsRegistry.Timer.CLONE, System.nanoTime() - start);
         
         //System.out.println("a");
         //PrintCharArray(clonedArray);
@@ -77,15 +76,30 @@ public class GeneratorUtils {
     }
 
 
-    public static Pair GetEmptySpacePair(char[][] board) {
-
-        Pair pair = new Pair(0,0);
-        do{
-            pair.i = Metaheuristics.random.nextInt( board.length );
-            pair.j = Metaheuristics.random.nextInt( board[0].length );
-       
-        }while(board[pair.i][pair.j] != ' ');
-        return pair;
+    //Índice de una casilla vacía al azar del genoma en O(1) (BoardGenome.GetEmpty), -1 si no hay ninguna
+    public static int GetEmptySpace(BoardGenome board, Random random) {
+        int count = board.CountEmpty();
+        return count == 0 ? -1 : board.GetEmpty(random.nextInt(count));
+    }
+    
+    /**
+     * Casilla vacía al azar para poner una caja, o -1 si no hay ninguna. Con
+     * Metaheuristics.P_SKIP_DEAD_BOX_SQUARES se elige solo entre las casillas
+     * donde la caja se puede mover (BoardGenome.GetBoxSquare): una caja en una
+     * IsDeadBoxSquare deja el tablero sin solución, así que si no queda
+     * ninguna de las otras también se devuelve -1.
+     */
+    public static int GetBoxSpace(BoardGenome board, Random random) {
+        if (!Metaheuristics.P_SKIP_DEAD_BOX_SQUARES)
+            return GetEmptySpace(board, random);
+        
+        int count = board.CountBoxSquares();
+        return count == 0 ? -1 : board.GetBoxSquare(random.nextInt(count));
+    }
+    
+    //Casillas entre las que elige GetBoxSpace
+    public static int CountBoxSpaces(BoardGenome board) {
+        return Metaheuristics.P_SKIP_DEAD_BOX_SQUARES ? board.CountBoxSquares() : board.CountEmpty();
     }
     
     public static Pair FindCharacterPairIndexBased(char[][] board, int characterID, int specificCount) {
@@ -94,24 +108,12 @@ public class GeneratorUtils {
         
         Pair pair = new Pair(0,0);
         int currentCount = 0;
-        
-        ArrayList<Character> chars = null;
-        switch(characterID){
-            case 0:
-                chars = playerChars;
-                break;
-            case 1:
-                chars = boxChars;
-                break;
-            case 2:
-                chars = goalChars;
-                break;
-        }
+        byte layer = BoardGenome.Layer(characterID);
 
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < columns; j++) {
                 char currentChar = board[i][j];
-                if (chars.contains(currentChar)) {
+                if (IsElement(layer, currentChar)) {
                     if(currentCount == specificCount){
                         pair.i = i;
                         pair.j = j;
@@ -134,23 +136,12 @@ public class GeneratorUtils {
         int rows = board.length;
         int columns = board[0].length;
         int count = 0;
-        
-        ArrayList<Character> chars = null;
-        switch(characterID){
-            case 0 :
-                chars = playerChars;
-                break;
-            case 1 :
-                chars = boxChars;
-                break;
-            case 2: chars = goalChars;
-                break;
-        }
+        byte layer = BoardGenome.Layer(characterID);
         
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < columns; j++) {
                 char currentChar = board[i][j];
-                if (chars.contains(currentChar)) {
+                if (IsElement(layer, currentChar)) {
                     count++;
                 }
             }
@@ -159,6 +150,16 @@ public class GeneratorUtils {
         return count; // Carácter no encontrado
     }
     
+    //Sin pasar cada char por un ArrayList<Character>
+    private static boolean IsElement(byte layer, char c) {
+        switch (c) {
+            case '@': case '$': case '*': case '.': case '+':
+                return (BoardGenome.Cell(c) & layer) != 0;
+            default:
+                return false;
+        }
+    }
+    
     public static int GetBoardManhattanDistance(char[][] genes){
     
         int manhattanDistance = 0;
@@ -231,16 +232,16 @@ public class GeneratorUtils {
         return playerPos;
     }
 
-    public static Pair RemoveRandomElementByType(int elementID, int maxID, Pair excludePair, char[][] genes) {
+    public static int RemoveRandomElementByType(int elementID, int maxID, Pair excludePair, BoardGenome genes, Random random) {
         
-        Pair pair = null;
+        int index;
         int randomID;
         do{
-            randomID = Metaheuristics.random.nextInt(maxID);
-            pair = GeneratorUtils.FindCharacterPairIndexBased(genes, elementID, randomID);
-        }while(pair.i == excludePair.i && pair.j == excludePair.j);
+            randomID = random.nextInt(maxID);
+            index = genes.Find(BoardGenome.Layer(elementID), randomID);
+        }while(genes.Row(index) == excludePair.i && genes.Column(index) == excludePair.j);
         
-        return pair;
+        return index;
     }
 
     static String Encode(Pair boxPair, Pair goalPair, Pair playerPair) {
@@ -0,0 +1,125 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package SokoGenerator;
+
+import Metaheuristics.BoardGenome;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Arma tableros que tienen solución por construcción: pone las cajas sobre
+ * sus metas y luego el jugador las tira hacia atrás (como en
+ * Board.BoxReachableSquaresBackwards y la idea de SokoTree de ir de la meta a
+ * la caja). Cada tirón deshecho es un empuje de la solución, así el tablero
+ * siempre se puede resolver y el solver solo hace falta para saber el número
+ * exacto de empujes.
+ *
+ * @author Hans
+ */
+public class ReverseGenerator {
+
+    /**
+     * Copia del tablero base con boxes cajas, sus metas y el jugador, después
+     * de hasta pulls tirones al azar. Devuelve null si ninguna caja quedó
+     * fuera de su meta (por ejemplo si las metas quedaron donde no se puede
+     * tirar).
+     */
+    public static BoardGenome Generate(BoardGenome baseBoard, int boxes, int pulls, Random random) {
+        BoardGenome board = baseBoard.Copy();
+        for (int k = 0; k < boxes && board.CountEmpty() > 1; k++) {
+            int goal = GeneratorUtils.GetEmptySpace(board, random);
+            board.Add(goal, BoardGenome.GOAL);
+            board.Add(goal, BoardGenome.BOX);
+        }
+        int player = GeneratorUtils.GetEmptySpace(board, random);
+        if (player < 0)
+            throw new IllegalArgumentException("El tablero base no tiene casillas vacías");
+
+        int size = board.GetSize();
+        boolean[] reachable = new boolean[size];
+        int[] stack = new int[size];
+        //Tirones posibles: caja * 4 + dirección
+        int[] moves = new int[4 * board.Count(BoardGenome.BOX)];
+        int[] offset = {-board.GetWidth(), 1, board.GetWidth(), -1};
+
+        for (int pull = 0; pull < pulls; pull++) {
+            MarkReachable(board, player, reachable, stack);
+
+            int count = 0;
+            for (int k = 0; k < board.Count(BoardGenome.BOX); k++) {
+                int box = board.Find(BoardGenome.BOX, k);
+                for (int direction = 0; direction < 4; direction++) {
+                    //El jugador se para al lado de la caja y retrocede una casilla
+                    int to = Step(board, box, direction);
+                    int back = to < 0 ? -1 : Step(board, to, direction);
+                    if (back >= 0 && reachable[to] && IsFree(board, back))
+                        moves[count++] = k * 4 + direction;
+                }
+            }
+            if (count == 0)
+                break;
+
+            int move = moves[random.nextInt(count)];
+            int box = board.Find(BoardGenome.BOX, move / 4);
+            int to = box + offset[move % 4];
+            board.Remove(box, BoardGenome.BOX);
+            board.Add(to, BoardGenome.BOX);
+            player = to + offset[move % 4];
+        }
+
+        //Al empezar el jugador puede estar en cualquier casilla que alcance
+        MarkReachable(board, player, reachable, stack);
+        int count = 0;
+        for (int index = 0; index < size; index++) {
+            if (reachable[index])
+                stack[count++] = index;
+        }
+        player = stack[random.nextInt(count)];
+        board.Add(player, BoardGenome.PLAYER);
+
+        for (int k = 0; k < board.Count(BoardGenome.BOX); k++) {
+            if ((board.Get(board.Find(BoardGenome.BOX, k)) & BoardGenome.GOAL) == 0)
+                return board;
+        }
+        return null;
+    }
+
+    //Casilla vecina en la dirección (0: arriba, 1: derecha, 2: abajo, 3: izquierda), -1 fuera del tablero
+    private static int Step(BoardGenome board, int index, int direction) {
+        int i = board.Row(index);
+        int j = board.Column(index);
+        switch (direction) {
+            case 0: i--; break;
+            case 1: j++; break;
+            case 2: i++; break;
+            default: j--; break;
+        }
+        if (i < 0 || j < 0 || i >= board.GetHeight() || j >= board.GetWidth())
+            return -1;
+        return board.Index(i, j);
+    }
+
+    private static boolean IsFree(BoardGenome board, int index) {
+        return (board.Get(index) & (BoardGenome.WALL | BoardGenome.BOX)) == 0;
+    }
+
+    //Casillas que alcanza el jugador sin mover cajas
+    private static void MarkReachable(BoardGenome board, int player, boolean[] reachable, int[] stack) {
+        Arrays.fill(reachable, false);
+        int top = 0;
+        reachable[player] = true;
+        stack[top++] = player;
+        while (top > 0) {
+            int index = stack[--top];
+            for (int direction = 0; direction < 4; direction++) {
+                int next = Step(board, index, direction);
+                if (next >= 0 && !reachable[next] && IsFree(board, next)) {
+                    reachable[next] = true;
+                    stack[top++] = next;
+                }
+            }
+        }
+    }
+}
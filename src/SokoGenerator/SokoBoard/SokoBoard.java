@@ -20,7 +20,6 @@ public class SokoBoard {
     public static int width;
     public static int height;
     public static TemplateFactory templateFactory;
-    public static Random random = new Random();
     public static FloodFill floodFill = new FloodFill();
     public static char WhiteSpace = '0';
     public static char StandarSpace = '9';
@@ -28,8 +27,10 @@ public class SokoBoard {
     public static ArrayList<char[][]> templatesCandidates = new ArrayList();
     public static Hashtable<Integer, ArrayList<char[][]>> templatesDict;
     public ArrayList<char[][]> levels = new ArrayList();
+    private final Random random;
 
-    public SokoBoard() throws FileNotFoundException {
+    public SokoBoard(Random random) throws FileNotFoundException {
+        this.random = random;
         templatesDict = new Hashtable();
         templateFactory = new TemplateFactory();
     }
@@ -44,7 +45,7 @@ public class SokoBoard {
 
             do {
                 try {
-                    levelGenerated = GenerateLevel();
+                    levelGenerated = GenerateLevel(random);
                 } catch (Exception var4) {
                     System.out.println(var4);
                     var4.printStackTrace();
@@ -58,7 +59,7 @@ public class SokoBoard {
         this.PrintLevels();
     }
 
-    private static char[][] GenerateLevel() {
+    private static char[][] GenerateLevel(Random random) {
         System.out.println("--> GenerateLevel...");
         char[][] level = new char[height][width];
         FillWEmpty(level);
@@ -376,7 +377,6 @@ public class SokoBoard {
     }
 
     private static void SetupDimension() {
-        new Random();
         width = 2;
         height = 2;
         width *= 3;
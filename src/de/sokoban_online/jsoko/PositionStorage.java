@@ -23,6 +23,7 @@ import de.sokoban_online.jsoko.boardpositions.AbsoluteBoardPosition;
 import de.sokoban_online.jsoko.boardpositions.CorralBoardPosition;
 import de.sokoban_online.jsoko.boardpositions.IBoardPosition;
 import de.sokoban_online.jsoko.boardpositions.RelativeBoardPosition;
+import java.util.Arrays;
 
 
 /**
@@ -31,6 +32,11 @@ import de.sokoban_online.jsoko.boardpositions.RelativeBoardPosition;
  * A hash table is used to store the board positions.
  * Board positions with the same hash value are stored in a linked list
  * in the same slot of the hash table.
+ * <p>
+ * The slots that have been used since the last clear are recorded, hence clearing
+ * only nulls these slots and costs about as much as the search that filled them.
+ * The (large) table can be reused for many searches without being reallocated or
+ * completely overwritten, and it doesn't keep board positions of former searches alive.
  */
 public final class PositionStorage {
 
@@ -40,6 +46,14 @@ public final class PositionStorage {
 	// The total number of board positions in the hash table.
 	private int count;
 
+	// Indices of the slots that have got their first entry since the last clear.
+	private int[] usedSlots = new int[1024];
+
+	// Number of used slots. If more than usedSlotsLimit slots are used they aren't
+	// recorded anymore and the whole table is cleared.
+	private int usedSlotsCount;
+	private final int usedSlotsLimit;
+
 	/**
 	 * Creates an object for storing board positions in a hash table.
 	 *
@@ -48,6 +62,7 @@ public final class PositionStorage {
 	public PositionStorage(int initialCapacity) {
 		// Create an array for the board positions to be stored.
 		table = new Entry[initialCapacity];
+		usedSlotsLimit = initialCapacity >> 4;
 	}
 
 	/**
@@ -115,17 +130,38 @@ public final class PositionStorage {
 
 	/**
 	 * Clears the storage so that it contains no board positions anymore.
+	 * <p>
+	 * Only the used slots are set to null. If too many slots have been used
+	 * for recording them the whole table is cleared, which then costs less than
+	 * the search that has filled it.
 	 */
 	public void clear() {
-		// This code is similar to hash table.clear()
-		Entry[] tab = table;
-
-		for (int index = tab.length; --index >= 0;) {
-			tab[index] = null;
+		if (usedSlotsCount > usedSlotsLimit) {
+			Arrays.fill(table, null);
+		} else {
+			for (int slot = 0; slot < usedSlotsCount; slot++) {
+				table[usedSlots[slot]] = null;
+			}
 		}
+		usedSlotsCount = 0;
 		count = 0;
 	}
 
+	/**
+	 * Records the passed slot as used since the last clear.
+	 *
+	 * @param index  index of the slot in the table
+	 */
+	private void addUsedSlot(int index) {
+		if (usedSlotsCount < usedSlotsLimit) {
+			if (usedSlotsCount == usedSlots.length) {
+				usedSlots = Arrays.copyOf(usedSlots, Math.min(2 * usedSlots.length, usedSlotsLimit));
+			}
+			usedSlots[usedSlotsCount] = index;
+		}
+		usedSlotsCount++;
+	}
+
 	/**
 	 * Stores the passed board position in the hash table.
 	 *
@@ -154,6 +190,9 @@ public final class PositionStorage {
 		}
 
 		// Create a new entry for the passed board position and store it in the hash table.
+		if (table[index] == null) {
+			addUsedSlot(index);
+		}
 		table[index] = new Entry(boardPosition, table[index]);
 		count++;
 
@@ -19,7 +19,6 @@
  */
 package de.sokoban_online.jsoko.boardpositions;
 
-import java.util.Random;
 
 import de.sokoban_online.jsoko.board.Board;
 import de.sokoban_online.jsoko.resourceHandling.Settings.SearchDirection;
@@ -52,11 +51,11 @@ public class AbsoluteBoardPosition extends BoardPosition {
      */
     public AbsoluteBoardPosition(Board board) {
 
-        // The main object is used to get all necessary data
-        BoardPosition.board = board;
+        // The board is used to get all necessary data
+        setBoard(board);
 
         // Save number of boxes
-        boxCount = (short) board.boxCount;
+        final short boxCount = (short) board.boxCount;
 
         // Array for all box and the player position.
         positions = new int[boxCount + 1];          // +1 for player position
@@ -81,22 +80,11 @@ public class AbsoluteBoardPosition extends BoardPosition {
     protected void calculateHashValue() {
 
         // Fill the Zobrist values if they aren't filled yet.
-        if (zobristValues == null
-                || board.size > zobristValues.length) {
-            zobristValues = new int[board.size];
-            Random randomGenerator = new Random(42);
-            for (int i = zobristValues.length; --i != -1;) {
-                zobristValues[i] = randomGenerator.nextInt();
-            }
-
-            //          for(int i=0; i<zobristValues.length; i++)
-            //              for(int j=i+1; j<zobristValues.length; j++)
-            //                  if(zobristValues[i] == zobristValues[j])
-            //                      System.out.println("bad zobrist");
-        }
+        ensureZobristValues(getBoard().size);
 
         // Calculate the hash value for this board position
-        for (int index = 0; index < boxCount + 1; index++) {
+        final int[] zobristValues = BoardPosition.zobristValues;
+        for (int index = 0; index < positions.length; index++) {
             hashvalue ^= zobristValues[positions[index]];
         }
     }
@@ -172,7 +160,7 @@ public class AbsoluteBoardPosition extends BoardPosition {
      */
     @Override
     final public int getPlayerPosition() {
-        return positions[boxCount];
+        return positions[positions.length - 1];
     }
 
     /**
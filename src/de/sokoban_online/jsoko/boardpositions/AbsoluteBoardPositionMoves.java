@@ -41,11 +41,11 @@ public class AbsoluteBoardPositionMoves extends AbsoluteBoardPosition implements
 	 */
 	public AbsoluteBoardPositionMoves(Board board) {
 
-		// The main object is used to get all necessary data
-		BoardPosition.board = board;
+		// The board is used to get all necessary data
+		setBoard(board);
 
 		// Save number of boxes
-		boxCount = (short) board.boxCount;
+		final short boxCount = (short) board.boxCount;
 
 		// Array for all box and the player position.
 		positions = new int[boxCount + 1];			// +1 for player position
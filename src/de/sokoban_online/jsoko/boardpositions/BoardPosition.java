@@ -19,6 +19,9 @@
  */
 package de.sokoban_online.jsoko.boardpositions;
 
+import java.util.Arrays;
+import java.util.Random;
+
 import de.sokoban_online.jsoko.board.Board;
 
 
@@ -32,12 +35,19 @@ import de.sokoban_online.jsoko.board.Board;
  */
 abstract public class BoardPosition implements IBoardPosition {
 
-	/** Number of boxes in board configurations.
-	 */
-    protected static short boxCount;
+    /**
+     * Board and number of boxes of the board positions created by a thread.
+     * <p>
+     * Every thread may run its own solver on its own board. Hence, this data
+     * is stored per thread instead of once for the whole application.
+     */
+    private static final class BoardData {
+        Board board;
+        short boxCount;
+    }
 
-    /** Reference to the board which holds the box data. */
-    protected static Board board;
+    /** The board data of the current thread. */
+    private static final ThreadLocal<BoardData> boardData = ThreadLocal.withInitial(BoardData::new);
 
     /**
      * The highest encodable box number (in 9 bits) indicates the special case,
@@ -50,14 +60,71 @@ abstract public class BoardPosition implements IBoardPosition {
     /**
      * Random ints for Zobrist hash value calculation.
      * This array is filled in an AbsoluteBoardPosition
-    // because that class is first to be instantiated.
+     * because that class is first to be instantiated.
+     * <p>
+     * The array is shared by all threads. It only grows and already
+     * set values never change, so it can be read without locking.
      */
-    protected static volatile int[] zobristValues = null;
+    protected static volatile int[] zobristValues = new int[0];
+
+    /** Random generator for the Zobrist values. */
+    private static final Random zobristRandomGenerator = new Random(42);
 
 
     /** The hash value of this configuration. */
     protected int hashvalue;
 
+    /**
+     * Sets the board the board positions of the current thread are created for.
+     *
+     * @param board  the board of the current level
+     */
+    protected static void setBoard(Board board) {
+        BoardData data = boardData.get();
+        data.board    = board;
+        data.boxCount = (short) board.boxCount;
+    }
+
+    /**
+     * Returns the board the board positions of the current thread are created for.
+     *
+     * @return the board of the current level
+     */
+    protected static Board getBoard() {
+        return boardData.get().board;
+    }
+
+    /**
+     * Returns the number of boxes in the board positions of the current thread.
+     *
+     * @return number of boxes
+     */
+    protected static short getBoxCount() {
+        return boardData.get().boxCount;
+    }
+
+    /**
+     * Ensures there is a Zobrist value for every square of a board having
+     * the passed size.
+     *
+     * @param boardSize  number of squares of the board
+     */
+    protected static void ensureZobristValues(int boardSize) {
+        if (zobristValues.length >= boardSize) {
+            return;
+        }
+        synchronized (zobristRandomGenerator) {
+            int[] currentValues = zobristValues;
+            if (currentValues.length < boardSize) {
+                int[] newValues = Arrays.copyOf(currentValues, boardSize);
+                for (int i = currentValues.length; i < boardSize; i++) {
+                    newValues[i] = zobristRandomGenerator.nextInt();
+                }
+                zobristValues = newValues;
+            }
+        }
+    }
+
     @Override
 	public abstract int[] getPositions();
     @Override
@@ -90,6 +157,8 @@ abstract public class BoardPosition implements IBoardPosition {
     @Override
 	public boolean equals(Object boardPosition) {
 
+        final short boxCount = getBoxCount();
+
         // Compare player positions.
         if(boardPosition == null || getPlayerPosition() != ((IBoardPosition) boardPosition).getPlayerPosition()) {
 			return false;
@@ -93,6 +93,9 @@ public final class CorralBoardPosition extends RelativeBoardPosition implements
 			int direction, IBoardPosition precedingBoardPosition) {
 		super(board, boxNo, direction, precedingBoardPosition);
 
+		final short boxCount = getBoxCount();
+		final int[] zobristValues = BoardPosition.zobristValues;
+
 		isBoxInactive = new boolean[boxCount];
 
 		// The hash value calculated by the super class may be wrong, because there may be some inactive
@@ -171,6 +174,7 @@ public final class CorralBoardPosition extends RelativeBoardPosition implements
 	public int[] getPositions() {
 
 		int[] boxPositions = super.getPositions();
+		final short boxCount = getBoxCount();
 
 		// Bei deaktiven Kisten wird die Position auf 0 gesetzt.
 		for (int boxNo = 0; boxNo < boxCount; boxNo++) {
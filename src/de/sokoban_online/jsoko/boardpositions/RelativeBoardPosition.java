@@ -91,7 +91,7 @@ public class RelativeBoardPosition extends BoardPosition implements Cloneable {
 	 */
 	public RelativeBoardPosition(Board board, int boxNo, int direction, IBoardPosition precedingBoardPosition) {
 
-		// The static variables "application" and "boxCount" don't have to be set, because an
+		// The board and "boxCount" of this thread don't have to be set, because an
 		// AbsoluteBoardPosition must have been created before an instance of this class is created.
 		// Hence, these variables are already set by the AbsoluteBoardPosition.
 
@@ -129,6 +129,8 @@ public class RelativeBoardPosition extends BoardPosition implements Cloneable {
 
 		// Calculate the hash value for this board position.
 		// This coding relies on the box to be on the correct position at the moment!
+		final Board board = getBoard();
+		final int[] zobristValues = BoardPosition.zobristValues;
 		int boxPosition = board.boxData.getBoxPosition(boxNo);
 		hashvalue = precedingBoardPosition.hashCode()
 				^ zobristValues[board.getPositionAtOppositeDirection(boxPosition, direction)]
@@ -141,6 +143,9 @@ public class RelativeBoardPosition extends BoardPosition implements Cloneable {
 	@Override
 	public int[] getPositions() {
 
+		final Board board = getBoard();
+		final short boxCount = getBoxCount();
+
 		// We recompute the absolute box positions from the relative encoding
 		int[] boxesDifferences = new int[boxCount+1];
 
@@ -58,6 +58,9 @@ public final class RelativeBoardPositionGoalAreaSolver extends RelativeBoardPosi
 	@Override
 	public int[] getPositions() {
 
+		final Board board = getBoard();
+		final short boxCount = getBoxCount();
+
 		// Ermittelt, welche Stellung in diesem Objekt abgelegt wurde, in dem aus der
 		// relativen Stellung wieder eine absolute Stellung errechnet wird
 		short[] boxesDifferences = new short[boxCount];
@@ -122,6 +125,9 @@ public final class RelativeBoardPositionGoalAreaSolver extends RelativeBoardPosi
 	 */
 	public int[] getRealPositions() {
 
+		final Board board = getBoard();
+		final short boxCount = getBoxCount();
+
 		// Ermittelt, welche Stellung in diesem Objekt abgelegt wurde, in dem aus der
 		// relativen Stellung wieder eine absolute Stellung errechnet wird
 		short[] boxesDifferences = new short[boxCount];
@@ -43,8 +43,8 @@ public class RelativeBoardPositionMoves extends RelativeBoardPosition implements
 	public RelativeBoardPositionMoves(Board board, int boxNo,
 			int direction, IBoardPosition precedingBoardPosition) {
 
-		// Save number of boxes in a static variable
-		boxCount = (short) board.boxCount;
+		// Save the board and the number of boxes for the current thread
+		setBoard(board);
 
 		// For move-board positions the player position is saved as it is (not the top-left player position!)
 		playerPosition = (short) board.playerPosition;
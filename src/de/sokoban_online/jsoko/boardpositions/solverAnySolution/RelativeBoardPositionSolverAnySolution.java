@@ -64,7 +64,7 @@ public final class RelativeBoardPositionSolverAnySolution
 			int boxNo, int direction, int packingSequenceIndex,
 			boolean[] isBoxAtPackingSequenceSquare,
 			IBoardPosition precedingBoardPosition) {
-		super(board, boxNo, direction, precedingBoardPosition);
+		super(getBoard(), boxNo, direction, precedingBoardPosition);
 
 		setIndexPackingSequence(packingSequenceIndex);
 
@@ -137,8 +137,10 @@ import de.sokoban_online.jsoko.workInProgress.newSettingsPanel.SettingsFrameNew;
 import Metaheuristics.DE.DEGenerator;
 import Metaheuristics.ES.ESGenerator;
 import Metaheuristics.GA.GAGenerator;
+import Metaheuristics.GA.GAIslands;
 import Metaheuristics.Metaheuristics;
 import Metaheuristics.SA.SAGenerator;
+import Metaheuristics.SA.SATempering;
 import examples.Prueba;
 import java.util.logging.Logger;
 
@@ -1074,10 +1076,12 @@ public final class GUI extends JPanel implements ActionListener {
                 
                 //Generators
                 GAGenerator gaGenerator = new GAGenerator();
+                GAIslands gaIslands = new GAIslands();
                 DEGenerator deGenerator = new DEGenerator();
                 ESGenerator esGenerator = new ESGenerator();
                 SAGenerator saGenerator = new SAGenerator(Metaheuristics.P_INITIAL_TEMPERATURE, 
                         Metaheuristics.P_COOLING_RATE);
+                SATempering saTempering = new SATempering();
                 
                 JMenuItem GA = new JMenuItem("GA");
                 menuItem.setActionCommand("InitGA");
@@ -1089,16 +1093,26 @@ public final class GUI extends JPanel implements ActionListener {
                 menuItem.setActionCommand("InitES");
               
                 
+                JMenuItem GAIslands = new JMenuItem("GA (islas)");
+                JMenuItem SATempering = new JMenuItem("SA (réplicas)");
+              
                 generateTypes.add(GA);
+                generateTypes.add(GAIslands);
                 generateTypes.add(ES);
                 generateTypes.add(DE);
                 generateTypes.add(SA);
+                generateTypes.add(SATempering);
 		
 		GA.addActionListener(e -> {
                     Metaheuristics.I_ALG_NAME = "Genetic Algorithm";
                     gaGenerator.Start();
                 });
                 
+                GAIslands.addActionListener(e -> {
+                    Metaheuristics.I_ALG_NAME = "Genetic Algorithm";
+                    gaIslands.Start();
+                });
+                
                 ES.addActionListener(e -> {
                     Metaheuristics.I_ALG_NAME = "Particle Swarm Optimization";
                     esGenerator.Start();
@@ -1113,6 +1127,11 @@ public final class GUI extends JPanel implements ActionListener {
                     Metaheuristics.I_ALG_NAME = "Simulated Annealing";
                     saGenerator.Start();
                 });
+                
+                SATempering.addActionListener(e -> {
+                    Metaheuristics.I_ALG_NAME = "Simulated Annealing (replicas)";
+                    saTempering.Start();
+                });
 		
 
 		/*
@@ -24,11 +24,14 @@ import java.util.ListIterator;
 import java.util.PriorityQueue;
 
 import de.sokoban_online.jsoko.JSoko;
+import de.sokoban_online.jsoko.PositionStorage;
+import de.sokoban_online.jsoko.board.Board;
 import de.sokoban_online.jsoko.boardpositions.AbsoluteBoardPositionMoves;
 import de.sokoban_online.jsoko.boardpositions.IBoardPosition;
 import de.sokoban_online.jsoko.boardpositions.solverAnySolution.AbsoluteBoardPositionSolverAnySolution;
 import de.sokoban_online.jsoko.boardpositions.solverAnySolution.IBoardPositionSolverAnySolution;
 import de.sokoban_online.jsoko.boardpositions.solverAnySolution.RelativeBoardPositionSolverAnySolution;
+import de.sokoban_online.jsoko.leveldata.History;
 import de.sokoban_online.jsoko.leveldata.solutions.Solution;
 import de.sokoban_online.jsoko.pushesLowerBoundCalculation.LowerBoundCalculation;
 import de.sokoban_online.jsoko.resourceHandling.Settings.SearchDirection;
@@ -72,6 +75,22 @@ public final class SolverAnySolution extends Solver {
 		boardPositionsToBeAnalyzedForward = new PriorityQueue<>(100000);
 	}
 
+	/**
+	 * Creates an instance of this class for solving the passed board without a GUI.
+	 * <p>
+	 * The packing sequence search needs the main object and is therefore not used.
+	 *
+	 * @param board the prepared board to be solved
+	 * @param movesHistory the history the solution is written to
+	 * @param positionStorage the storage for the reached board positions
+	 */
+	public SolverAnySolution(Board board, History movesHistory, PositionStorage positionStorage) {
+		super(board, movesHistory, positionStorage);
+
+		// Create a priority queue for storing the board positions.
+		boardPositionsToBeAnalyzedForward = new PriorityQueue<>(100000);
+	}
+
 	/**
 	 * This method controls the search for a solution of the current level.
 	 */
@@ -112,7 +131,7 @@ public final class SolverAnySolution extends Solver {
 		}
 
 		// Depending on the level either a packing sequence search is done or the normal "any solution" search.
-		if(isPackingSequenceLevel()) {
+		if(application != null && isPackingSequenceLevel()) {
 
 			// Display a text so the user is informed that a packing sequence is searched.
 			publish(Texts.getText("solver.searchingPackingSequence"));
@@ -204,7 +223,7 @@ public final class SolverAnySolution extends Solver {
 
 		// Remember the current index of the history. All movements of the solution are added to the history and then the index
 		// is set back to this value in order to have all solution movements "in the future" of the history.
-		int currentIndex = application.movesHistory.getCurrentMovementNo();
+		int currentIndex = movesHistory.getCurrentMovementNo();
 
 		// Add all movements to the history.
 		for (IBoardPosition push : pushes) {
@@ -212,11 +231,11 @@ public final class SolverAnySolution extends Solver {
 
 			int pushedBoxNo = currentBoardPosition.getBoxNo();
 			int direction = currentBoardPosition.getDirection();
-			application.movesHistory.addMovement(direction, pushedBoxNo);
+			movesHistory.addMovement(direction, pushedBoxNo);
 		}
 
 		// Set the index of the history back to the remembered value in order to allow the user to use the redo functionality.
-		application.movesHistory.setMovementNo(currentIndex);
+		movesHistory.setMovementNo(currentIndex);
 
 		// Set back the initial board position.
 		for(int position=board.firstRelevantSquare; position<board.lastRelevantSquare; position++) {
@@ -233,7 +252,7 @@ public final class SolverAnySolution extends Solver {
 		optimizeSolution();
 
 		// Create the new solution.
-		Solution newSolution = new Solution(application.movesHistory.getLURDFromHistoryTotal());
+		Solution newSolution = new Solution(movesHistory.getLURDFromHistoryTotal());
 		newSolution.name = solutionByMeNow();
 
 		for(int position=board.firstRelevantSquare; position<board.lastRelevantSquare; position++) {
@@ -289,13 +308,13 @@ public final class SolverAnySolution extends Solver {
 
 
 		// The board position with the highest relevance is taken as basis board position for generating successors.
-		while((boardPositionToBeAnalyzed = boardPositionsToBeAnalyzedForward.poll()) != null && !isCancelled()) {
+		while((boardPositionToBeAnalyzed = boardPositionsToBeAnalyzedForward.poll()) != null && !isSearchStopped()) {
 
 			// Set the board position.
 			board.setBoardPosition(boardPositionToBeAnalyzed);
 
 			// Only for debugging: show board positions.
-			if(solverGUI.isShowBoardPositionsActivated.isSelected()) {
+			if(solverGUI != null && solverGUI.isShowBoardPositionsActivated.isSelected()) {
 				displayBoard();
 			}
 
@@ -492,13 +511,13 @@ public final class SolverAnySolution extends Solver {
 		int currentBoardPositionPushesCount = 0;
 
 		// The board position with the highest relevance value is taken as basis board position for generating successors.
-		while((boardPositionToBeAnalyzed = boardPositionsToBeAnalyzedForward.poll()) != null && !isCancelled()) {
+		while((boardPositionToBeAnalyzed = boardPositionsToBeAnalyzedForward.poll()) != null && !isSearchStopped()) {
 
 			// Set the board position.
 			board.setBoardPosition(boardPositionToBeAnalyzed);
 
 			// Only for debugging: show board positions.
-			if(solverGUI.isShowBoardPositionsActivated.isSelected()) {
+			if(solverGUI != null && solverGUI.isShowBoardPositionsActivated.isSelected()) {
 				displayBoard();
 			}
 
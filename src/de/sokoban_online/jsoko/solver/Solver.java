@@ -67,14 +67,17 @@ public abstract class Solver extends SwingWorker<Solution, String> implements Di
     // Reference to the game board object
     protected final Board board;
 
-    // Reference to the main object
+    // Reference to the main object. May be null when the solver runs headless.
     protected final JSoko application;
 
+    // History the found solution is written to.
+    protected final History movesHistory;
+
     // GUI for the solver.
     protected final SolverGUI solverGUI;
 
     /** Object for storing board positions. Public for easier access. */
-    protected final PositionStorage positionStorage = new PositionStorage(1 << 22);
+    protected final PositionStorage positionStorage;
 
     // Direct reference to the offset array (improves readability)
     protected final int[] offset;
@@ -149,6 +152,25 @@ public abstract class Solver extends SwingWorker<Solution, String> implements Di
     // Flag indicating whether the solver has been stopped due to an out of memory situation.
     protected boolean isSolverStoppedDueToOutOfMemory;
 
+    /**
+     * The search time is only checked every time this number of board positions
+     * has been expanded, so the clock isn't read for every board position.
+     * Must be a power of 2.
+     */
+    private static final int TIME_CHECK_INTERVAL = 1024;
+
+    // Budget of the search. A value of 0 means "no limit" (see setSearchBudget).
+    private int maxExpandedBoardPositions = 0;
+    private int maxStoredBoardPositions = 0;
+    private long searchDeadlineNanos = 0;
+    private boolean hasSearchDeadline = false;
+
+    // Number of board positions expanded so far.
+    private int expandedBoardPositionsCount = 0;
+
+    // Flag indicating whether the solver has been stopped because the search budget is exhausted.
+    protected boolean isSolverStoppedDueToBudget;
+
     /**
      * Constructor for this abstract class.
      *
@@ -156,10 +178,35 @@ public abstract class Solver extends SwingWorker<Solution, String> implements Di
      * @param solverGUI reference to the GUI of this solver
      */
     public Solver(JSoko application, SolverGUI solverGUI) {
+        this(application, application.board, application.movesHistory, new PositionStorage(1 << 22), solverGUI);
+    }
+
+    /**
+     * Constructor for a solver working on its own board and history.
+     * <p>
+     * The board must already be prepared (see {@link Board#prepareBoard()}).
+     * No level has to be loaded for playing in JSoko, hence this can be
+     * used for evaluating many generated boards without a GUI.
+     * <p>
+     * The position storage is cleared and can be reused by the next solver,
+     * so its hash table needn't be allocated again for every board.
+     *
+     * @param board the board to be solved
+     * @param movesHistory the history the solution is written to
+     * @param positionStorage the storage for the reached board positions
+     */
+    public Solver(Board board, History movesHistory, PositionStorage positionStorage) {
+        this(null, board, movesHistory, positionStorage, null);
+        positionStorage.clear();
+    }
+
+    private Solver(JSoko application, Board board, History movesHistory, PositionStorage positionStorage, SolverGUI solverGUI) {
 
         // Store references to the main object and the board object
         this.application = application;
-        board = application.board;
+        this.board = board;
+        this.movesHistory = movesHistory;
+        this.positionStorage = positionStorage;
 
         // Save a reference to the GUI.
         this.solverGUI = solverGUI;
@@ -257,7 +304,7 @@ public abstract class Solver extends SwingWorker<Solution, String> implements Di
      */
     final protected void optimizeSolution() {
 
-        int firstSolutionMovementNo = application.movesHistory.getCurrentMovementNo();
+        int firstSolutionMovementNo = movesHistory.getCurrentMovementNo();
         int lastSolutionMovementNo = 0;
 
         HistoryElement movement = null;
@@ -271,7 +318,7 @@ public abstract class Solver extends SwingWorker<Solution, String> implements Di
         int sameBoxPushNo;
 
         // Direct reference to then history object
-        History movementHistory = application.movesHistory;
+        History movementHistory = movesHistory;
 
         // Backup of the current configuration
         AbsoluteBoardPositionMoves currentBoardPositionBackup;
@@ -447,7 +494,7 @@ public abstract class Solver extends SwingWorker<Solution, String> implements Di
 
                 // Since the index has been set to the value which had been set before the solver has been started,
                 // we can use the normal "addPlayerMove" method for inserting the player moves.
-                application.movesHistory.addPlayerMove(board.getMoveDirectionNumber(playerPath[moveNo - 1], playerPath[moveNo]));
+                movesHistory.addPlayerMove(board.getMoveDirectionNumber(playerPath[moveNo - 1], playerPath[moveNo]));
             }
 
             // Perform push
@@ -455,7 +502,7 @@ public abstract class Solver extends SwingWorker<Solution, String> implements Di
             board.playerPosition = boxPosition;
 
             // Store movement
-            application.movesHistory.addMovement(movement.direction, board.getBoxNo(boxPosition));
+            movesHistory.addMovement(movement.direction, board.getBoxNo(boxPosition));
         }
 
         // Set the board like it was before this method was called
@@ -1413,6 +1460,58 @@ public abstract class Solver extends SwingWorker<Solution, String> implements Di
         }
     }
 
+    /**
+     * Sets the budget of the search. The search stops without a solution
+     * when one of the limits is exceeded, see {@link #isSolverStoppedDueToBudget()}.
+     * The time limit starts when this method is called.
+     *
+     * @param maxExpandedBoardPositions maximum number of expanded board positions, 0 = no limit
+     * @param maxStoredBoardPositions maximum number of board positions in the position storage, 0 = no limit
+     * @param maxSearchTimeMillis maximum search time in milliseconds, 0 = no limit
+     */
+    public void setSearchBudget(int maxExpandedBoardPositions, int maxStoredBoardPositions, long maxSearchTimeMillis) {
+        this.maxExpandedBoardPositions = maxExpandedBoardPositions;
+        this.maxStoredBoardPositions = maxStoredBoardPositions;
+        this.hasSearchDeadline = maxSearchTimeMillis > 0;
+        this.searchDeadlineNanos = System.nanoTime() + maxSearchTimeMillis * 1000000L;
+    }
+
+    /**
+     * Returns whether the search has to be stopped, because it has been cancelled
+     * or its budget is exhausted.
+     * <p>
+     * This method must be called once for every expanded board position.
+     *
+     * @return <code>true</code> if the search has to be stopped, <code>false</code> otherwise
+     */
+    protected final boolean isSearchStopped() {
+
+        if (isSolverStoppedDueToBudget || isCancelled()) {
+            return true;
+        }
+
+        expandedBoardPositionsCount++;
+
+        if ((maxExpandedBoardPositions > 0 && expandedBoardPositionsCount > maxExpandedBoardPositions)
+                || (maxStoredBoardPositions > 0 && positionStorage.getNumberOfStoredBoardPositions() > maxStoredBoardPositions)
+                || (hasSearchDeadline && (expandedBoardPositionsCount & (TIME_CHECK_INTERVAL - 1)) == 0
+                        && System.nanoTime() - searchDeadlineNanos > 0)) {
+            isSolverStoppedDueToBudget = true;
+        }
+
+        return isSolverStoppedDueToBudget;
+    }
+
+    /**
+     * Returns whether the solver has been stopped because the search budget is exhausted.
+     *
+     * @return <code>true</code> if the solver stopped due to the budget, and
+     *        <code>false</code> otherwise
+     */
+    public boolean isSolverStoppedDueToBudget() {
+        return isSolverStoppedDueToBudget;
+    }
+
     /**
      * Returns whether the solver has been stopped due to insufficient memory.
      *
@@ -1423,6 +1522,15 @@ public abstract class Solver extends SwingWorker<Solution, String> implements Di
         return isSolverStoppedDueToOutOfMemory;
     }
 
+    /**
+     * Returns the number of board positions reached during the last search.
+     *
+     * @return number of reached board positions
+     */
+    public int getBoardPositionsCount() {
+        return boardPositionsCount;
+    }
+
     /**
      * Draws the board to the GUI and waits until the board has been drawn.
      * <p>
@@ -20,9 +20,12 @@
 package de.sokoban_online.jsoko.solver;
 
 import de.sokoban_online.jsoko.JSoko;
+import de.sokoban_online.jsoko.PositionStorage;
+import de.sokoban_online.jsoko.board.Board;
 import de.sokoban_online.jsoko.boardpositions.IBoardPosition;
 import de.sokoban_online.jsoko.boardpositions.IBoardPositionMoves;
 import de.sokoban_online.jsoko.boardpositions.RelativeBoardPositionMoves;
+import de.sokoban_online.jsoko.leveldata.History;
 import de.sokoban_online.jsoko.pushesLowerBoundCalculation.LowerBoundCalculation;
 import de.sokoban_online.jsoko.resourceHandling.Texts;
 import de.sokoban_online.jsoko.utilities.Debug;
@@ -44,6 +47,17 @@ public class SolverAStarPushesMoves extends SolverIDAStarPushesMoves {
         super(application, solverGUI);
     }
 
+    /**
+     * Creates a A*-Pushes with best move solver for the passed board which runs without a GUI.
+     *
+     * @param board the prepared board to be solved
+     * @param movesHistory the history the solution is written to
+     * @param positionStorage the storage for the reached board positions
+     */
+    public SolverAStarPushesMoves(Board board, History movesHistory, PositionStorage positionStorage) {
+        super(board, movesHistory, positionStorage);
+    }
+
     /**
      * Tries to solve the level by generating all possible no-deadlock board positions and
      * returns the solution path via a global variable.
@@ -89,7 +103,7 @@ public class SolverAStarPushesMoves extends SolverIDAStarPushesMoves {
 
 
         // The board position with the lowest estimated solution path length is analyzed further next.
-        while((boardPositionToBeAnalyzed = getBestBoardPosition()) != null && !isCancelled()) {
+        while((boardPositionToBeAnalyzed = getBestBoardPosition()) != null && !isSearchStopped()) {
 
             // Set the board position.
             board.setBoardPosition(boardPositionToBeAnalyzed);
@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 
 import de.sokoban_online.jsoko.JSoko;
+import de.sokoban_online.jsoko.PositionStorage;
 import de.sokoban_online.jsoko.board.Board;
 import de.sokoban_online.jsoko.boardpositions.BoardPosition;
 import de.sokoban_online.jsoko.boardpositions.IBoardPosition;
@@ -30,6 +31,7 @@ import de.sokoban_online.jsoko.boardpositions.IBoardPositionMoves;
 import de.sokoban_online.jsoko.boardpositions.iterative.AbsoluteBoardPositionMovesIterative;
 import de.sokoban_online.jsoko.boardpositions.iterative.IBoardPositionMovesIterative;
 import de.sokoban_online.jsoko.boardpositions.iterative.RelativeBoardPositionMovesIterative;
+import de.sokoban_online.jsoko.leveldata.History;
 import de.sokoban_online.jsoko.leveldata.solutions.Solution;
 import de.sokoban_online.jsoko.pushesLowerBoundCalculation.LowerBoundCalculation;
 import de.sokoban_online.jsoko.resourceHandling.Settings.SearchDirection;
@@ -86,6 +88,20 @@ public class SolverIDAStarPushesMoves extends Solver {
         playersReachableSquaresMovesTunnel 	  = board.new PlayersReachableSquaresMoves();
     }
 
+    /**
+     * Constructs an object for solving the passed board without a GUI.
+     *
+     * @param board the prepared board to be solved
+     * @param movesHistory the history the solution is written to
+     * @param positionStorage the storage for the reached board positions
+     */
+    public SolverIDAStarPushesMoves(Board board, History movesHistory, PositionStorage positionStorage) {
+        super(board, movesHistory, positionStorage);
+
+        playersReachableSquaresMoves          = board.new PlayersReachableSquaresMoves();
+        playersReachableSquaresMovesTunnel 	  = board.new PlayersReachableSquaresMoves();
+    }
+
 
     /**
 	 * Versucht, die aktuelle im Spielfeldobjekt abgelegte Stellung zu lösen.
@@ -260,7 +276,7 @@ public class SolverIDAStarPushesMoves extends Solver {
 		// Der aktuelle Index in der History muss gemerkt werden, da der Benutzer genau
 		// hier wieder starten soll. Alle Bewegungen, die jetzt eingefügt werden, sollen also
 		// "in der Zukunft" liegen.
-		int currentIndex = application.movesHistory.getCurrentMovementNo();
+		int currentIndex = movesHistory.getCurrentMovementNo();
 
         for (IBoardPosition push : pushes) {
 
@@ -289,7 +305,7 @@ public class SolverIDAStarPushesMoves extends Solver {
                 board.playerPosition = playerPath[moveNo];
 
                 // Bewegungsrichtung ermitteln
-                application.movesHistory.addPlayerMove(
+                movesHistory.addPlayerMove(
                         board.getMoveDirectionNumber(playerPath[moveNo - 1], playerPath[moveNo])
                 );
             }
@@ -297,12 +313,12 @@ public class SolverIDAStarPushesMoves extends Solver {
             // Die letzte Bewegung des Spielers wird zusammen mit der verschobenen Kiste gespeichert.
             board.playerPosition = boxStartPosition;
             int movementDirection = board.getMoveDirectionNumber(boxStartPosition, boxTargetPosition);
-            application.movesHistory.addMovement(movementDirection, board.getBoxNo(boxStartPosition));
+            movesHistory.addMovement(movementDirection, board.getBoxNo(boxStartPosition));
         }
 
 		// Den aktuellen Zug in der History wieder auf den Wert setzen, auf den er vor dem
 		// Einfügen der neuen Züge stand. Dadurch kann der Spieler mit "redo" die Züge durchgehen.
-		application.movesHistory.setMovementNo(currentIndex);
+		movesHistory.setMovementNo(currentIndex);
 
 	    // Die Anfangsstellung auf dem Spielfeld setzen.
 		for(int position=board.firstRelevantSquare; position<board.lastRelevantSquare; position++) {
@@ -319,7 +335,7 @@ public class SolverIDAStarPushesMoves extends Solver {
 		positionStorage.clear();
 
 		// Create the new solution.
-		Solution newSolution = new Solution(application.movesHistory.getLURDFromHistoryTotal());
+		Solution newSolution = new Solution(movesHistory.getLURDFromHistoryTotal());
 		newSolution.name = solutionByMeNow();
 
 		return newSolution;
@@ -367,7 +383,7 @@ public class SolverIDAStarPushesMoves extends Solver {
 		// Verarbeitungslogik
 		//
 		// Die Stellung mit der geringsten geschätzten Lösungspfadlänge weiter untersuchen
-		while((boardPositionToBeAnalyzed = (IBoardPositionMovesIterative) getBestBoardPosition()) != null && !isCancelled()) {
+		while((boardPositionToBeAnalyzed = (IBoardPositionMovesIterative) getBestBoardPosition()) != null && !isSearchStopped()) {
 
 			// Das Spielfeld mit der aktuellen Stellung besetzen
 			board.setBoardPosition(boardPositionToBeAnalyzed);
@@ -43,7 +43,7 @@ public final class RelativeBoardPositionEvolutionarySolver extends RelativeBoard
 	 * @param precedingBoardPosition previous board position
 	 */
 	public RelativeBoardPositionEvolutionarySolver(JSoko application, int boxNo, int direction, IBoardPosition precedingBoardPosition) {
-		super(board, boxNo, direction, precedingBoardPosition);
+		super(getBoard(), boxNo, direction, precedingBoardPosition);
 	}
 
 	/* (non-Javadoc)
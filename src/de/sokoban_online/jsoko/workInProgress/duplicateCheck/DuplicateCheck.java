@@ -40,10 +40,68 @@ public final class DuplicateCheck {
 	 * Prefix "flipped" means that after being rotated the level is also
 	 * flipped horizontally.
 	 */
-	private enum Transformations {
+	public enum Transformations {
         ROTATED_0, ROTATED_90, ROTATED_180, ROTATED_270,
 		FLIPPED_ROTATED_0,   FLIPPED_ROTATED_90,
-		FLIPPED_ROTATED_180, FLIPPED_ROTATED_270
+		FLIPPED_ROTATED_180, FLIPPED_ROTATED_270;
+
+		/**
+		 * Returns whether rows and columns are swapped by this transformation.
+		 *
+		 * @return <code>true</code> for the rotations by 90 and 270 degrees
+		 */
+		public boolean isTransposed() {
+			return this == ROTATED_90  || this == FLIPPED_ROTATED_90
+				|| this == ROTATED_270 || this == FLIPPED_ROTATED_270;
+		}
+
+		/**
+		 * Returns the square shown at the given position of the transformed
+		 * level. The result is the same as in {@link DuplicateCheck#getNormalizedRow}.
+		 *
+		 * @param level  rectangular level to be transformed
+		 * @param row    row in the transformed level
+		 * @param column column in the transformed level
+		 * @return square of the original level
+		 */
+		public char getSquare(char[][] level, int row, int column) {
+			int width = level[0].length;
+			int index = getSquareIndex(level.length, width, row, column);
+			return level[index / width][index % width];
+		}
+
+		/**
+		 * Returns the position (<code>row * width + column</code>) in the
+		 * original level of the square shown at the given position of the
+		 * transformed level.
+		 *
+		 * @param height height of the original level
+		 * @param width  width of the original level
+		 * @param row    row in the transformed level
+		 * @param column column in the transformed level
+		 * @return position of the square in the original level
+		 */
+		public int getSquareIndex(int height, int width, int row, int column) {
+
+			/* Flip the line horizontally. */
+			if (ordinal() >= FLIPPED_ROTATED_0.ordinal()) {
+				column = (isTransposed() ? height : width) - column - 1;
+			}
+
+			switch (this) {
+				case ROTATED_90:
+				case FLIPPED_ROTATED_90:
+					return column * width + width-row-1;
+				case ROTATED_180:
+				case FLIPPED_ROTATED_180:
+					return (height-row-1) * width + width-column-1;
+				case ROTATED_270:
+				case FLIPPED_ROTATED_270:
+					return (height-column-1) * width + row;
+				default:
+					return row * width + column;
+			}
+		}
 	}
 
 	/** Copy of the level which should be normalized. */